@@ -0,0 +1,310 @@
+package uis.entornos.backend_nosql.bench;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import uis.entornos.backend_nosql.model.Cliente;
+import uis.entornos.backend_nosql.model.DetalleVenta;
+import uis.entornos.backend_nosql.model.Empleado;
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.model.Role;
+import uis.entornos.backend_nosql.model.Sucursal;
+import uis.entornos.backend_nosql.model.Venta;
+import uis.entornos.backend_nosql.repository.ClienteRepository;
+import uis.entornos.backend_nosql.repository.Contadores;
+import uis.entornos.backend_nosql.repository.EmpleadoRepository;
+import uis.entornos.backend_nosql.repository.Pagina;
+import uis.entornos.backend_nosql.repository.PaginadorKeyset;
+import uis.entornos.backend_nosql.repository.ProductoRepository;
+import uis.entornos.backend_nosql.repository.ReactiveProductoRepository;
+import uis.entornos.backend_nosql.repository.ReactiveVentaRepository;
+import uis.entornos.backend_nosql.repository.SucursalRepository;
+import uis.entornos.backend_nosql.repository.VentaDiariaRepository;
+import uis.entornos.backend_nosql.repository.VentaRepository;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Repositorios en memoria para los benchmarks: solo implementan los métodos que
+ * usan los caminos medidos (cualquier otro lanza UnsupportedOperationException),
+ * así lo que se mide es el código del servicio/controlador y no Mongo.
+ */
+final class Fakes {
+
+    private Fakes() {
+    }
+
+    // 🔹 Proxy dinámico: nombre de método -> implementación
+    @SuppressWarnings("unchecked")
+    static <T> T repositorio(Class<T> tipo, Map<String, Function<Object[], Object>> metodos) {
+        return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo }, (proxy, metodo, args) -> {
+            switch (metodo.getName()) {
+                case "toString":
+                    return "Fake" + tipo.getSimpleName();
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    Function<Object[], Object> impl = metodos.get(metodo.getName());
+                    if (impl == null) {
+                        throw new UnsupportedOperationException(tipo.getSimpleName() + "." + metodo.getName());
+                    }
+                    return impl.apply(args);
+            }
+        });
+    }
+
+    // Contadores en memoria (versiones de VersionesService); solo lo que usan los benchmarks
+    static Contadores contadores() {
+        Map<String, Map<String, Long>> documentos = new ConcurrentHashMap<>();
+        return new Contadores(null) {
+            @Override
+            public void incrementarYSubirA(String contador, String campo, long valor) {
+                documentos.compute(contador, (k, d) -> {
+                    Map<String, Long> nuevo = d == null ? new HashMap<>() : new HashMap<>(d);
+                    nuevo.merge("seq", 1L, Long::sum);
+                    nuevo.merge(campo, valor, Math::max);
+                    return nuevo;
+                });
+            }
+
+            @Override
+            public Map<String, Long> leerVarios(Collection<String> contadores) {
+                return leerVarios(contadores, "seq");
+            }
+
+            @Override
+            public Map<String, Long> leerVarios(Collection<String> contadores, String campo) {
+                Map<String, Long> valores = new HashMap<>();
+                for (String c : contadores) {
+                    valores.put(c, documentos.getOrDefault(c, Map.of()).getOrDefault(campo, 0L));
+                }
+                return valores;
+            }
+        };
+    }
+
+    /**
+     * Datos sintéticos: sucursales, productos (con stock de sobra), un cliente,
+     * empleados y ventas repartidas en el último año.
+     */
+    static final class Datos {
+        final List<Sucursal> sucursales = new ArrayList<>();
+        final Map<String, Producto> productos = new ConcurrentHashMap<>();
+        final Map<String, Empleado> empleados = new HashMap<>();
+        final Cliente cliente = new Cliente();
+        final List<Venta> ventas = new ArrayList<>();
+        private final AtomicLong secuencia = new AtomicLong();
+
+        Datos(int cantidadSucursales, int productosPorSucursal, int cantidadEmpleados) {
+            for (int s = 0; s < cantidadSucursales; s++) {
+                Sucursal suc = new Sucursal();
+                suc.setId("suc-" + s);
+                suc.setNombre("Sucursal " + s);
+                sucursales.add(suc);
+                for (int p = 0; p < productosPorSucursal; p++) {
+                    Producto prod = new Producto();
+                    prod.setId("prod-" + s + "-" + p);
+                    prod.setNombre("Producto " + p);
+                    prod.setPrecio(new BigDecimal("1250.50").add(BigDecimal.valueOf(p)));
+                    prod.setStock(Integer.MAX_VALUE / 2);
+                    prod.setSucursal(suc);
+                    productos.put(prod.getId(), prod);
+                }
+            }
+            for (int e = 0; e < cantidadEmpleados; e++) {
+                Empleado emp = new Empleado();
+                emp.setId("emp-" + e);
+                emp.setNombre("Empleado " + e);
+                emp.setUsuario("empleado" + e);
+                emp.setEmail("empleado" + e + "@tienda.com");
+                emp.setCargo("Cajero");
+                emp.setSalario(new BigDecimal("1800000"));
+                emp.setRole(Role.EMPLOYEE);
+                emp.setSucursal(sucursales.get(e % cantidadSucursales));
+                empleados.put(emp.getId(), emp);
+            }
+            cliente.setId("cli-0");
+            cliente.setNombre("Cliente de prueba");
+        }
+
+        void generarVentas(int cantidad, int detallesPorVenta) {
+            ventas.clear();
+            List<Producto> lista = new ArrayList<>(productos.values());
+            List<Empleado> emps = new ArrayList<>(empleados.values());
+            LocalDateTime inicio = LocalDateTime.now().minusDays(365);
+            for (int i = 0; i < cantidad; i++) {
+                Venta v = new Venta();
+                v.setId("venta-" + i);
+                v.setFecha(inicio.plusMinutes(i * (365L * 24 * 60 / Math.max(cantidad, 1))));
+                v.setSucursal(sucursales.get(i % sucursales.size()));
+                v.setEmpleado(emps.get(i % emps.size()));
+                v.setCliente(cliente);
+                v.setDetalles(new ArrayList<>());
+                BigDecimal total = BigDecimal.ZERO;
+                for (int d = 0; d < detallesPorVenta; d++) {
+                    Producto p = lista.get((i + d) % lista.size());
+                    DetalleVenta det = new DetalleVenta();
+                    det.setProducto(p);
+                    det.setCantidad(1 + d % 3);
+                    det.setSubtotal(p.getPrecio().multiply(BigDecimal.valueOf(det.getCantidad())));
+                    v.getDetalles().add(det);
+                    total = total.add(det.getSubtotal());
+                }
+                v.setTotal(total);
+                ventas.add(v);
+            }
+        }
+
+        ClienteRepository clientes() {
+            return repositorio(ClienteRepository.class, Map.of(
+                    "findById", a -> Optional.of(cliente)));
+        }
+
+        SucursalRepository sucursales() {
+            return repositorio(SucursalRepository.class, Map.of(
+                    "findById", a -> sucursales.stream().filter(s -> s.getId().equals(a[0])).findFirst(),
+                    "existsById", a -> sucursales.stream().anyMatch(s -> s.getId().equals(a[0]))));
+        }
+
+        EmpleadoRepository empleados() {
+            return repositorio(EmpleadoRepository.class, Map.of(
+                    "findById", a -> Optional.ofNullable(empleados.get((String) a[0]))));
+        }
+
+        @SuppressWarnings("unchecked")
+        ProductoRepository productos() {
+            return repositorio(ProductoRepository.class, Map.of(
+                    "listarPorSucursal", a -> productos.values().stream()
+                            .filter(p -> a[0] == null || p.getSucursal().getId().equals(a[0]))
+                            .map(Datos::copia)
+                            .toList(),
+                    "paginarPorCursor", a -> primeraPagina(productos.values().stream()
+                            .filter(p -> a[0] == null || p.getSucursal().getId().equals(a[0]))
+                            .map(Datos::copia)
+                            .toList(), Producto::getId, (Integer) a[2]),
+                    // Copias: registrarVenta descuenta sobre los objetos que recibe
+                    "listarPorIds", a -> ((Collection<String>) a[0]).stream()
+                            .map(productos::get)
+                            .map(Datos::copia)
+                            .toList(),
+                    "descontarStock", a -> {
+                        ((Map<String, Integer>) a[0]).forEach((id, n) -> {
+                            Producto p = productos.get(id);
+                            // HilosBenchmark vende desde varios hilos
+                            synchronized (p) {
+                                p.setStock(p.getStock() - n);
+                            }
+                        });
+                        return Optional.empty();
+                    },
+                    "reponerStock", a -> {
+                        ((Map<String, Integer>) a[0]).forEach((id, n) -> {
+                            Producto p = productos.get(id);
+                            // HilosBenchmark vende desde varios hilos
+                            synchronized (p) {
+                                p.setStock(p.getStock() + n);
+                            }
+                        });
+                        return null;
+                    }));
+        }
+
+        VentaRepository ventas() {
+            return repositorio(VentaRepository.class, Map.of(
+                    "save", a -> {
+                        Venta v = (Venta) a[0];
+                        v.setId("nueva-" + secuencia.incrementAndGet());
+                        return v;
+                    },
+                    "filtrar", a -> filtrar((String) a[0], (LocalDateTime) a[1], (LocalDateTime) a[2], (Pageable) a[3])));
+        }
+
+        ReactiveVentaRepository ventasReactivas() {
+            return repositorio(ReactiveVentaRepository.class, Map.of(
+                    "filtrar", a -> Flux.fromIterable(filtrar((String) a[0], (LocalDateTime) a[1], (LocalDateTime) a[2],
+                            Pageable.unpaged()).getContent())));
+        }
+
+        ReactiveProductoRepository productosReactivos() {
+            return repositorio(ReactiveProductoRepository.class, Map.of(
+                    "listarPorSucursal", a -> Flux.fromIterable(productos.values())
+                            .filter(p -> a[0] == null || p.getSucursal().getId().equals(a[0]))));
+        }
+
+        VentaDiariaRepository ventasDiarias() {
+            return repositorio(VentaDiariaRepository.class, Map.of(
+                    "acumular", a -> null,
+                    "findByDiaRange", a -> List.of()));
+        }
+
+        // Mismo criterio que VentaRepositoryCustomImpl.filtrar, sobre la lista en memoria
+        private Page<Venta> filtrar(String sucursalId, LocalDateTime desde, LocalDateTime hasta, Pageable pageable) {
+            List<Venta> resultado = new ArrayList<>();
+            for (Venta v : ventas) {
+                if (sucursalId != null && !sucursalId.equals(v.getSucursal().getId())) {
+                    continue;
+                }
+                if (desde != null && v.getFecha().isBefore(desde)) {
+                    continue;
+                }
+                if (hasta != null && !v.getFecha().isBefore(hasta)) {
+                    continue;
+                }
+                resultado.add(v);
+            }
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(resultado);
+            }
+            int desdeIdx = (int) Math.min(pageable.getOffset(), resultado.size());
+            int hastaIdx = Math.min(desdeIdx + pageable.getPageSize(), resultado.size());
+            return new PageImpl<>(resultado.subList(desdeIdx, hastaIdx), pageable, resultado.size());
+        }
+
+        // Paginador sobre los empleados en memoria (los demás tipos no se paginan en los benchmarks)
+        PaginadorKeyset paginador() {
+            return new PaginadorKeyset(null) {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <T> Pagina<T> pagina(Query filtro, Class<T> tipo, Function<T, String> id, String after, int limite) {
+                    List<T> todos = tipo == Empleado.class ? (List<T>) List.copyOf(empleados.values()) : List.of();
+                    return primeraPagina(todos, id, limite);
+                }
+            };
+        }
+
+        // Como PaginadorKeyset sin cursor: orden por id y límite acotado
+        private static <T> Pagina<T> primeraPagina(List<T> todos, Function<T, String> id, int limite) {
+            int n = Math.max(1, Math.min(limite, PaginadorKeyset.LIMITE_MAXIMO));
+            List<T> ordenados = todos.stream().sorted(Comparator.comparing(id)).toList();
+            return ordenados.size() <= n
+                    ? new Pagina<>(ordenados, null)
+                    : new Pagina<>(ordenados.subList(0, n), id.apply(ordenados.get(n - 1)));
+        }
+
+        private static Producto copia(Producto p) {
+            Producto c = new Producto();
+            c.setId(p.getId());
+            c.setNombre(p.getNombre());
+            c.setPrecio(p.getPrecio());
+            c.setStock(p.getStock());
+            c.setSucursal(p.getSucursal());
+            return c;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package uis.entornos.backend_nosql.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uis.entornos.backend_nosql.model.Venta;
+import uis.entornos.backend_nosql.service.VentaService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VentaService.filtrarVentas sobre el repositorio en memoria de {@link Fakes}.
+ * El filtro es un recorrido lineal de la lista, así que los tiempos crecen con
+ * el total de ventas y no dicen nada de la consulta real en Mongo (índice
+ * sucursal + fecha): solo sirven para comparar el costo del lado Java del
+ * servicio (rango de fechas, armado de la página) entre versiones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FiltrarVentasEnMemoriaBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int ventas;
+
+    private VentaService ventaService;
+    private LocalDate hace30Dias;
+    private LocalDate hoy;
+
+    @Setup
+    public void preparar() {
+        Fakes.Datos datos = new Fakes.Datos(5, 20, 10);
+        datos.generarVentas(ventas, 3);
+        ventaService = VentaServiceBenchmark.servicio(datos);
+        hoy = LocalDate.now();
+        hace30Dias = hoy.minusDays(30);
+    }
+
+    @Benchmark
+    public List<Venta> porSucursalUltimoMes() {
+        return ventaService.filtrarVentas("suc-1", hace30Dias, hoy);
+    }
+
+    @Benchmark
+    public List<Venta> todasUltimoMes() {
+        return ventaService.filtrarVentas(null, hace30Dias, hoy);
+    }
+}
@@ -0,0 +1,88 @@
+package uis.entornos.backend_nosql.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import uis.entornos.backend_nosql.dto.ProductoResponseDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tamaño y CPU de serializar las respuestas de GET /api/ventas y GET /api/productos
+ * en JSON, Smile y CBOR, sin comprimir y con gzip (nivel por defecto, como Tomcat).
+ *
+ * Los bytes de cada combinación se imprimen al preparar el estado (salida de JMH).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatosRespuestaBenchmark {
+
+    @Param({ "ventas", "productos" })
+    public String respuesta;
+
+    @Param({ "json", "smile", "cbor" })
+    public String formato;
+
+    @Param({ "false", "true" })
+    public boolean gzip;
+
+    private ObjectMapper mapper;
+    private Object cuerpo;
+
+    @Setup
+    public void preparar() throws IOException {
+        // Como los convertidores de WebConfig: builder de Spring con otra fábrica
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        switch (formato) {
+            case "smile" -> builder.factory(new SmileFactory());
+            case "cbor" -> builder.factory(new CBORFactory());
+            default -> { }
+        }
+        mapper = builder.build();
+
+        // 100 ventas de 5 productos; una página de 500 productos del catálogo
+        Fakes.Datos datos = new Fakes.Datos(2, 250, 5);
+        if (respuesta.equals("ventas")) {
+            datos.generarVentas(100, 5);
+            cuerpo = List.copyOf(datos.ventas);
+        } else {
+            cuerpo = datos.productos.values().stream()
+                    .map(p -> new ProductoResponseDTO(p.getId(), p.getNombre(), p.getPrecio(), p.getStock(),
+                            p.getSucursal().getId(), p.getSucursal().getNombre()))
+                    .toList();
+        }
+        System.out.printf("%n%s / %s / gzip=%s: %d bytes%n", respuesta, formato, gzip, serializar().length);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws IOException {
+        if (!gzip) {
+            return mapper.writeValueAsBytes(cuerpo);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(out, cuerpo);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,106 @@
+package uis.entornos.backend_nosql.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uis.entornos.backend_nosql.dto.VentaDTO;
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.model.Venta;
+import uis.entornos.backend_nosql.service.VentaService;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ráfagas de ventas concurrentes sobre el VentaService real (repositorios en memoria,
+ * ver Fakes) atendidas por pools de distinto tamaño, hasta los 200 hilos de Tomcat.
+ *
+ * Sin Mongo de por medio lo que queda es el costo propio del registro y la contención
+ * en sus locks (resumen diario, contadores en vivo, caché del catálogo): si el tiempo
+ * por ráfaga no baja al sumar hilos, algún lock está serializando las ventas. Los hilos
+ * virtuales no se comparan aquí: el proyecto compila y corre con Java 17.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HilosBenchmark {
+
+    @Param({ "1", "8", "50", "200" })
+    public int hilos;
+
+    @Param({ "1000" })
+    public int clientes;
+
+    private ExecutorService executor;
+    private VentaService ventaService;
+    private List<VentaDTO> tickets;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Fakes.Datos datos = new Fakes.Datos(4, 50, 20);
+        ventaService = VentaServiceBenchmark.servicio(datos);
+        executor = Executors.newFixedThreadPool(hilos);
+
+        // Un ticket por empleado con 3 productos de su sucursal, distintos entre empleados
+        tickets = new ArrayList<>();
+        for (int e = 0; e < 20; e++) {
+            String sucursalId = "suc-" + (e % 4);
+            List<Producto> deLaSucursal = datos.productos.values().stream()
+                    .filter(p -> p.getSucursal().getId().equals(sucursalId))
+                    .sorted(Comparator.comparing(Producto::getId))
+                    .toList();
+            VentaDTO dto = new VentaDTO();
+            dto.setClienteId(datos.cliente.getId());
+            dto.setEmpleadoId("emp-" + e);
+            dto.setSucursalId(sucursalId);
+            List<VentaDTO.Item> items = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                VentaDTO.Item item = new VentaDTO.Item();
+                item.setProductoId(deLaSucursal.get((e + i) % deLaSucursal.size()).getId());
+                item.setCantidad(1);
+                items.add(item);
+            }
+            dto.setItems(items);
+            tickets.add(dto);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int rafaga() throws Exception {
+        List<Future<Venta>> ventas = new ArrayList<>(clientes);
+        for (int i = 0; i < clientes; i++) {
+            VentaDTO dto = tickets.get(i % tickets.size());
+            ventas.add(executor.submit(() -> ventaService.registrarVenta(dto)));
+        }
+        int registradas = 0;
+        for (Future<Venta> v : ventas) {
+            if (v.get() != null) {
+                registradas++;
+            }
+        }
+        return registradas;
+    }
+}
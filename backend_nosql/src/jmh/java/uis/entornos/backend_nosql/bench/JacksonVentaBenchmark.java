@@ -0,0 +1,56 @@
+package uis.entornos.backend_nosql.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import uis.entornos.backend_nosql.model.Venta;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización con Jackson de grafos de Venta (sucursal, empleado, cliente y
+ * detalles con su producto), como la respuesta de GET /api/ventas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonVentaBenchmark {
+
+    @Param({ "1", "10", "50" })
+    public int detalles;
+
+    @Param({ "1", "100" })
+    public int ventas;
+
+    private ObjectMapper mapper;
+    private List<Venta> lista;
+
+    @Setup
+    public void preparar() {
+        // Misma configuración base que el ObjectMapper de Spring Boot (JavaTimeModule, etc.)
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        Fakes.Datos datos = new Fakes.Datos(2, 50, 5);
+        datos.generarVentas(ventas, detalles);
+        lista = List.copyOf(datos.ventas);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(lista);
+    }
+}
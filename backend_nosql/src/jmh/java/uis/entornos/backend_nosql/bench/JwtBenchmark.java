@@ -0,0 +1,68 @@
+package uis.entornos.backend_nosql.bench;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uis.entornos.backend_nosql.utils.JwtClaves;
+import uis.entornos.backend_nosql.utils.JwtUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación y validación de tokens con JwtUtils: validación en caché
+ * (token repetido) y sin caché (cada token es nuevo para la caché).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final int TOKENS = 1024;
+
+    private JwtUtils conCache;
+    private JwtUtils sinCache;
+    private String token;
+    private String[] tokens;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        JwtClaves claves = new JwtClaves("", "", "", "");
+        conCache = new JwtUtils(claves, 10_000);
+        // Con una sola entrada y tokens rotando, cada validación verifica la firma
+        sinCache = new JwtUtils(claves, 1);
+        token = conCache.generateToken("admin");
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = conCache.generateToken("usuario" + i);
+        }
+    }
+
+    @Benchmark
+    public String generar() {
+        return conCache.generateToken("admin");
+    }
+
+    @Benchmark
+    public Optional<Claims> validarConCache() {
+        return conCache.parseToken(token);
+    }
+
+    @Benchmark
+    public Optional<Claims> validarSinCache() {
+        siguiente = (siguiente + 1) & (TOKENS - 1);
+        return sinCache.parseToken(tokens[siguiente]);
+    }
+}
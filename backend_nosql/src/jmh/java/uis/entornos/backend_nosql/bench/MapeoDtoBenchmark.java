@@ -0,0 +1,86 @@
+package uis.entornos.backend_nosql.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.web.context.request.ServletWebRequest;
+import uis.entornos.backend_nosql.controller.EmpleadoController;
+import uis.entornos.backend_nosql.controller.ProductoController;
+import uis.entornos.backend_nosql.dto.EmpleadoWithSucursalDTO;
+import uis.entornos.backend_nosql.dto.ProductoResponseDTO;
+import uis.entornos.backend_nosql.service.CambiosProductoService;
+import uis.entornos.backend_nosql.service.CatalogoCacheService;
+import uis.entornos.backend_nosql.service.BusquedaService;
+import uis.entornos.backend_nosql.service.InventarioService;
+import uis.entornos.backend_nosql.service.VersionesService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bucles de mapeo a DTO de ProductoController.listar y EmpleadoController.listar
+ * (primera página, hasta el límite máximo). El catálogo se mide sin caché (TTL 0) y con caché.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapeoDtoBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int registros;
+
+    private ProductoController productosSinCache;
+    private ProductoController productosConCache;
+    private EmpleadoController empleados;
+
+    @Setup
+    @SuppressWarnings("deprecation")
+    public void preparar() {
+        Fakes.Datos datos = new Fakes.Datos(1, registros, registros);
+        VersionesService versiones = new VersionesService(Fakes.contadores(), 1000);
+        InventarioService inventario = new InventarioService(datos.productos(), datos.ventas(), versiones, null, null, false);
+        BusquedaService busqueda = new BusquedaService(datos.productos(), datos.clientes());
+        // Sin Mongo ni secuencia: solo lo usan las escrituras y /changes, que no se miden aquí
+        CambiosProductoService cambios = new CambiosProductoService(datos.productos(), null, null, 30);
+        productosSinCache = new ProductoController(datos.productos(), datos.productosReactivos(), datos.sucursales(), inventario,
+                new CatalogoCacheService(0, 100), busqueda, versiones, cambios);
+        productosConCache = new ProductoController(datos.productos(), datos.productosReactivos(), datos.sucursales(), inventario,
+                new CatalogoCacheService(Long.MAX_VALUE / 2, 100), busqueda, versiones, cambios);
+        empleados = new EmpleadoController(datos.empleados(), datos.sucursales(), NoOpPasswordEncoder.getInstance(),
+                datos.paginador(), versiones);
+    }
+
+    @Benchmark
+    public List<ProductoResponseDTO> productosListar() {
+        return productosSinCache.listar("suc-0", null, registros, peticion()).getBody();
+    }
+
+    @Benchmark
+    public List<ProductoResponseDTO> productosListarCache() {
+        return productosConCache.listar("suc-0", null, registros, peticion()).getBody();
+    }
+
+    @Benchmark
+    public List<EmpleadoWithSucursalDTO> empleadosListar() {
+        return empleados.listar(null, registros, peticion()).getBody();
+    }
+
+    // GET sin If-None-Match: siempre se arma la respuesta
+    private static ServletWebRequest peticion() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,93 @@
+package uis.entornos.backend_nosql.bench;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uis.entornos.backend_nosql.dto.VentaDTO;
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.model.Venta;
+import uis.entornos.backend_nosql.service.CatalogoCacheService;
+import uis.entornos.backend_nosql.service.InventarioService;
+import uis.entornos.backend_nosql.service.VentaDiariaService;
+import uis.entornos.backend_nosql.service.VentaService;
+import uis.entornos.backend_nosql.service.VentasEnVivoService;
+import uis.entornos.backend_nosql.service.VersionesService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VentaService.registrarVenta según la cantidad de ítems del ticket,
+ * con repositorios en memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VentaServiceBenchmark {
+
+    @Param({ "1", "5", "20", "100" })
+    public int items;
+
+    private VentaService ventaService;
+    private VentaDTO dto;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Fakes.Datos datos = new Fakes.Datos(1, Math.max(items, 10), 1);
+        ventaService = VentaServiceBenchmark.servicio(datos);
+
+        dto = new VentaDTO();
+        dto.setClienteId(datos.cliente.getId());
+        dto.setEmpleadoId("emp-0");
+        dto.setSucursalId("suc-0");
+        List<VentaDTO.Item> lineas = new ArrayList<>();
+        int i = 0;
+        for (Producto p : datos.productos.values()) {
+            if (i++ == items) {
+                break;
+            }
+            VentaDTO.Item item = new VentaDTO.Item();
+            item.setProductoId(p.getId());
+            item.setCantidad(1 + i % 3);
+            lineas.add(item);
+        }
+        dto.setItems(lineas);
+    }
+
+    @Benchmark
+    public Venta registrarVenta() {
+        return ventaService.registrarVenta(dto);
+    }
+
+    static VentaService servicio(Fakes.Datos datos) {
+        VersionesService versiones = new VersionesService(Fakes.contadores(), 1000);
+        return new VentaService(
+                datos.ventas(),
+                datos.ventasReactivas(),
+                datos.productos(),
+                datos.clientes(),
+                datos.empleados(),
+                datos.sucursales(),
+                new InventarioService(datos.productos(), datos.ventas(), versiones, null, null, false),
+                new VentaDiariaService(datos.ventasDiarias(), null),
+                new VentasEnVivoService(datos.ventasDiarias()),
+                new CatalogoCacheService(30_000, 100),
+                versiones,
+                new SimpleMeterRegistry(),
+                30);
+    }
+}
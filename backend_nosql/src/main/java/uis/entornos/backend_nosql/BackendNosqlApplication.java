@@ -2,8 +2,10 @@ package uis.entornos.backend_nosql;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BackendNosqlApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,37 @@
+package uis.entornos.backend_nosql.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import uis.entornos.backend_nosql.repository.BatchDbRefResolver;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+@Configuration
+public class MongoConfig {
+
+    // 🔗 Resolver de @DBRef que permite resolver referencias en bloque (ver DbRefBatchLoader)
+    @Bean
+    public BatchDbRefResolver batchDbRefResolver(MongoDatabaseFactory mongoDatabaseFactory) {
+        return new BatchDbRefResolver(mongoDatabaseFactory);
+    }
+
+    // Reemplaza el converter de Spring Boot solo para usar el resolver anterior
+    @Bean
+    public MappingMongoConverter mappingMongoConverter(BatchDbRefResolver batchDbRefResolver,
+            MongoMappingContext mongoMappingContext, MongoCustomConversions mongoCustomConversions) {
+        MappingMongoConverter converter = new MappingMongoConverter(batchDbRefResolver, mongoMappingContext);
+        converter.setCustomConversions(mongoCustomConversions);
+        return converter;
+    }
+
+    // 📊 Documentos por colección/comando; tiempos y pool los registra Spring Boot
+    // (mongodb.driver.commands, mongodb.driver.pool.*)
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoDocumentosListener(MeterRegistry meterRegistry) {
+        return settings -> settings.addCommandListener(new MongoDocumentosListener(meterRegistry));
+    }
+}
@@ -0,0 +1,84 @@
+package uis.entornos.backend_nosql.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CommandListener del driver que registra cuántos documentos devuelve o modifica
+ * cada comando, por colección y comando ("mongodb.comandos.documentos").
+ *
+ * Los tiempos por colección/comando ya los mide el listener de Spring Boot
+ * ("mongodb.driver.commands"); este completa la cantidad de documentos.
+ */
+public class MongoDocumentosListener implements CommandListener {
+
+    private final MeterRegistry registry;
+    // requestId -> colección (la respuesta no trae la colección)
+    private final Map<Integer, String> colecciones = new ConcurrentHashMap<>();
+
+    public MongoDocumentosListener(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String coleccion = coleccion(event.getCommandName(), event.getCommand());
+        if (coleccion != null) {
+            colecciones.put(event.getRequestId(), coleccion);
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String coleccion = colecciones.remove(event.getRequestId());
+        long documentos = documentos(event.getCommandName(), event.getResponse());
+        if (coleccion == null || documentos < 0) {
+            return;
+        }
+        DistributionSummary.builder("mongodb.comandos.documentos")
+                .description("Documentos devueltos o modificados por comando")
+                .tag("coleccion", coleccion)
+                .tag("comando", event.getCommandName())
+                .register(registry)
+                .record(documentos);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        colecciones.remove(event.getRequestId());
+    }
+
+    // El nombre de la colección va como valor del propio comando ({ find: "ventas" }),
+    // salvo getMore, que lo lleva en "collection"
+    private static String coleccion(String comando, BsonDocument cuerpo) {
+        BsonValue valor = "getMore".equals(comando) ? cuerpo.get("collection") : cuerpo.get(comando);
+        return valor != null && valor.isString() ? valor.asString().getValue() : null;
+    }
+
+    // -1 si el comando no informa una cantidad de documentos
+    private static long documentos(String comando, BsonDocument respuesta) {
+        BsonDocument cursor = respuesta.getDocument("cursor", null);
+        if (cursor != null) {
+            BsonArray lote = cursor.containsKey("firstBatch")
+                    ? cursor.getArray("firstBatch")
+                    : cursor.getArray("nextBatch", null);
+            return lote != null ? lote.size() : -1;
+        }
+        if ("findAndModify".equals(comando)) {
+            BsonValue valor = respuesta.get("value");
+            return valor != null && !valor.isNull() ? 1 : 0;
+        }
+        BsonValue n = respuesta.get("n");
+        return n != null && n.isNumber() ? n.asNumber().longValue() : -1;
+    }
+}
@@ -8,9 +8,15 @@ import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -21,6 +27,18 @@ public class SecurityConfig {
         this.jwtUtils = jwtUtils;
     }
 
+    // 🔑 Contraseñas guardadas como "{bcrypt}hash". Las antiguas en texto plano (sin prefijo)
+    // se siguen aceptando y se re-hashean en el siguiente login correcto
+    @Bean
+    @SuppressWarnings("deprecation")
+    public PasswordEncoder passwordEncoder() {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of(
+                "bcrypt", new BCryptPasswordEncoder(),
+                "noop", NoOpPasswordEncoder.getInstance()));
+        encoder.setDefaultPasswordEncoderForMatches(NoOpPasswordEncoder.getInstance());
+        return encoder;
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -66,6 +84,10 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.DELETE, "/api/ventas/**").permitAll()
                         // Swagger (si lo estás usando)
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        // Actuator: solo health es público; métricas y Prometheus exponen
+                        // latencias, volumen de ventas y datos del pool, así que van con JWT
+                        .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").authenticated()
                         // El resto requiere autenticación JWT
                         .requestMatchers("/api/**").authenticated()
                         .anyRequest().permitAll())
@@ -1,11 +1,45 @@
 package uis.entornos.backend_nosql.config;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
-public class WebConfig implements WebMvcConfigurer {
+public class WebConfig implements WebMvcConfigurer, DisposableBean {
+
+    // 🧵 Pool propio para las respuestas asíncronas (/api/ventas/stream, /export.csv, NDJSON
+    // reactivo). No se registra como bean: el applicationTaskExecutor de Spring Boot queda igual
+    private final ThreadPoolTaskExecutor streaming = new ThreadPoolTaskExecutor();
+
+    public WebConfig(@Value("${web.streaming.hilos:8}") int hilos,
+            @Value("${web.streaming.cola:16}") int cola) {
+        streaming.setThreadNamePrefix("streaming-");
+        streaming.setCorePoolSize(hilos);
+        streaming.setMaxPoolSize(hilos);
+        streaming.setQueueCapacity(cola);
+        streaming.initialize();
+    }
+
+    // Con el pool y la cola llenos se rechaza (503 en VentaController) en lugar de encolar sin límite
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streaming);
+    }
+
+    @Override
+    public void destroy() {
+        streaming.shutdown();
+    }
 
     // 🌍 Durante desarrollo, permitir todo (React, Postman, etc.)
     @Override
@@ -13,6 +47,21 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addMapping("/**")
                 .allowedOrigins("*")
                 .allowedMethods("*")
-                .allowedHeaders("*");
+                .allowedHeaders("*")
+                // Para que el front pueda leer el total y el cursor siguiente de los listados paginados
+                .exposedHeaders("X-Total-Count", "X-Next-Cursor");
+    }
+
+    // 📦 Smile y CBOR: mismo JSON lógico pero binario, para las cajas con enlaces lentos.
+    // Se piden con Accept (y se pueden enviar con Content-Type); sin Accept sigue saliendo JSON.
+    // Se arman con el builder de Spring Boot para que fechas y módulos queden igual que en JSON
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
     }
 }
@@ -0,0 +1,36 @@
+package uis.entornos.backend_nosql.controller;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import uis.entornos.backend_nosql.service.AnaliticaVentasService;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/ventas/analitica")
+@CrossOrigin(origins = "*")
+public class AnaliticaVentasController {
+
+    private final AnaliticaVentasService analiticaService;
+
+    public AnaliticaVentasController(AnaliticaVentasService analiticaService) {
+        this.analiticaService = analiticaService;
+    }
+
+    // 🔹 Top de productos, ingresos por sucursal y periodo (dia, semana o mes), ticket promedio
+    // y ventas por empleado; mismos filtros que /api/ventas/filtrar
+    @GetMapping
+    public ResponseEntity<?> analizar(
+            @RequestParam(required = false) String sucursalId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(defaultValue = "dia") String periodo,
+            @RequestParam(defaultValue = "10") int top) {
+        try {
+            return ResponseEntity.ok(analiticaService.analizar(sucursalId, fechaInicio, fechaFin, periodo, top));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("{ \"error\": \"" + e.getMessage() + "\" }");
+        }
+    }
+}
@@ -7,8 +7,10 @@ import uis.entornos.backend_nosql.utils.JwtUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -24,18 +26,23 @@ public class AuthController {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
         try {
             String identificador = request.getIdentificador();
             String password = request.getPassword();
 
-            // 🔄 Buscamos por email o usuario en MongoDB
-            Optional<Empleado> empleadoOpt = empleadoRepository.findByEmailAndPassword(identificador, password);
-
-            if (empleadoOpt.isEmpty()) {
-                empleadoOpt = empleadoRepository.findByUsuarioAndPassword(identificador, password);
-            }
+            // 🔄 Una sola consulta por email o usuario; la contraseña se compara contra el hash
+            // (si el identificador coincide con el email de uno y el usuario de otro, gana el email)
+            Optional<Empleado> empleadoOpt = empleadoRepository.findByEmailOrUsuario(identificador, identificador)
+                    .stream()
+                    .sorted(Comparator.comparing((Empleado e) -> !identificador.equals(e.getEmail())))
+                    .filter(e -> password != null && e.getPassword() != null
+                            && passwordEncoder.matches(password, e.getPassword()))
+                    .findFirst();
 
             if (empleadoOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -43,6 +50,13 @@ public class AuthController {
             }
 
             Empleado empleado = empleadoOpt.get();
+
+            // Contraseña antigua en texto plano: se guarda ya hasheada
+            if (passwordEncoder.upgradeEncoding(empleado.getPassword())) {
+                empleado.setPassword(passwordEncoder.encode(password));
+                empleadoRepository.save(empleado);
+            }
+
             String sucursalId = (empleado.getSucursal() != null) ? empleado.getSucursal().getId() : null;
 
             // ✅ Generar el token JWT
@@ -2,8 +2,11 @@ package uis.entornos.backend_nosql.controller;
 
 import uis.entornos.backend_nosql.model.Cliente;
 import uis.entornos.backend_nosql.repository.ClienteRepository;
+import uis.entornos.backend_nosql.repository.PaginadorKeyset;
+import uis.entornos.backend_nosql.service.BusquedaService;
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,10 +21,24 @@ public class ClienteController {
     @Autowired
     private ClienteRepository clienteRepository;
 
-    @Operation(summary = "Obtiene todos los clientes")
+    @Autowired
+    private BusquedaService busqueda;
+
+    @Autowired
+    private PaginadorKeyset paginador;
+
+    @Operation(summary = "Obtiene los clientes por páginas; el cursor de la siguiente va en X-Next-Cursor")
     @GetMapping
-    public ResponseEntity<List<Cliente>> findAll() {
-        return ResponseEntity.ok(clienteRepository.findAll());
+    public ResponseEntity<List<Cliente>> findAll(@RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + PaginadorKeyset.LIMITE_POR_DEFECTO) int limit) {
+        return Paginas.respuesta(paginador.pagina(new Query(), Cliente.class, Cliente::getId, after, limit));
+    }
+
+    @Operation(summary = "Busca clientes cuyo nombre empieza por el texto (typeahead)")
+    @GetMapping("/search")
+    public ResponseEntity<List<Cliente>> search(@RequestParam String q,
+            @RequestParam(defaultValue = "" + BusquedaService.LIMITE_POR_DEFECTO) int limit) {
+        return ResponseEntity.ok(busqueda.buscarClientes(q, limit));
     }
 
     @Operation(summary = "Obtiene un cliente por su ID")
@@ -35,7 +52,9 @@ public class ClienteController {
     @Operation(summary = "Crea un nuevo cliente")
     @PostMapping
     public ResponseEntity<Cliente> create(@RequestBody Cliente cliente) {
-        return new ResponseEntity<>(clienteRepository.save(cliente), HttpStatus.CREATED);
+        Cliente guardado = clienteRepository.save(cliente);
+        busqueda.indexarCliente(guardado);
+        return new ResponseEntity<>(guardado, HttpStatus.CREATED);
     }
 
     @Operation(summary = "Actualiza un cliente existente")
@@ -45,7 +64,9 @@ public class ClienteController {
             return ResponseEntity.notFound().build();
         }
         cliente.setId(id);
-        return ResponseEntity.ok(clienteRepository.save(cliente));
+        Cliente guardado = clienteRepository.save(cliente);
+        busqueda.indexarCliente(guardado);
+        return ResponseEntity.ok(guardado);
     }
 
     @Operation(summary = "Elimina un cliente")
@@ -55,6 +76,7 @@ public class ClienteController {
             return ResponseEntity.notFound().build();
         }
         clienteRepository.deleteById(id);
+        busqueda.quitarCliente(id);
         return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,29 @@
+package uis.entornos.backend_nosql.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+import uis.entornos.backend_nosql.service.VersionesService;
+
+import java.util.function.Supplier;
+
+// GET condicional: si el ETag (o Last-Modified) del cliente coincide con la versión actual,
+// se responde 304 sin armar la respuesta, o sea, sin ir a Mongo
+final class Condicional {
+
+    private Condicional() {
+    }
+
+    static <T> ResponseEntity<T> responder(ServletWebRequest request, VersionesService.Version version,
+            Supplier<ResponseEntity<T>> respuesta) {
+        // no-cache: el navegador guarda la respuesta pero siempre revalida
+        // (y así Spring Security no agrega su no-store)
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        }
+        if (request.checkNotModified(version.etag(), version.modificado())) {
+            return null; // 304 ya escrito por checkNotModified
+        }
+        return respuesta.get();
+    }
+}
@@ -2,6 +2,9 @@ package uis.entornos.backend_nosql.controller;
 
 import uis.entornos.backend_nosql.model.DetalleVenta;
 import uis.entornos.backend_nosql.repository.DetalleVentaRepository;
+import uis.entornos.backend_nosql.repository.PaginadorKeyset;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -13,14 +16,18 @@ import java.util.Optional;
 public class DetalleVentaController {
 
     private final DetalleVentaRepository detalleVentaRepository;
+    private final PaginadorKeyset paginador;
 
-    public DetalleVentaController(DetalleVentaRepository detalleVentaRepository) {
+    public DetalleVentaController(DetalleVentaRepository detalleVentaRepository, PaginadorKeyset paginador) {
         this.detalleVentaRepository = detalleVentaRepository;
+        this.paginador = paginador;
     }
 
+    // 🔹 Listar por páginas de cursor (after/limit); el cursor siguiente va en X-Next-Cursor
     @GetMapping
-    public List<DetalleVenta> listar() {
-        return detalleVentaRepository.findAll();
+    public ResponseEntity<List<DetalleVenta>> listar(@RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + PaginadorKeyset.LIMITE_POR_DEFECTO) int limit) {
+        return Paginas.respuesta(paginador.pagina(new Query(), DetalleVenta.class, DetalleVenta::getId, after, limit));
     }
 
     @PostMapping
@@ -1,13 +1,20 @@
 package uis.entornos.backend_nosql.controller;
 
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import uis.entornos.backend_nosql.dto.EmpleadoDTO;
 import uis.entornos.backend_nosql.dto.EmpleadoWithSucursalDTO;
 import uis.entornos.backend_nosql.model.Empleado;
 import uis.entornos.backend_nosql.model.Role;
 import uis.entornos.backend_nosql.model.Sucursal;
 import uis.entornos.backend_nosql.repository.EmpleadoRepository;
+import uis.entornos.backend_nosql.repository.Pagina;
+import uis.entornos.backend_nosql.repository.PaginadorKeyset;
 import uis.entornos.backend_nosql.repository.SucursalRepository;
+import uis.entornos.backend_nosql.service.VersionesService;
 
 import java.util.List;
 
@@ -17,17 +24,32 @@ public class EmpleadoController {
 
     private final EmpleadoRepository empleadoRepository;
     private final SucursalRepository sucursalRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final PaginadorKeyset paginador;
+    private final VersionesService versiones;
 
-    public EmpleadoController(EmpleadoRepository empleadoRepository, SucursalRepository sucursalRepository) {
+    public EmpleadoController(EmpleadoRepository empleadoRepository, SucursalRepository sucursalRepository,
+            PasswordEncoder passwordEncoder, PaginadorKeyset paginador, VersionesService versiones) {
         this.empleadoRepository = empleadoRepository;
         this.sucursalRepository = sucursalRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.paginador = paginador;
+        this.versiones = versiones;
     }
 
-    // 🔹 Listar empleados con datos de sucursal
+    // 🔹 Listar empleados con datos de sucursal, por páginas de cursor (after/limit); 304 si no cambió
     @GetMapping
-    public List<EmpleadoWithSucursalDTO> listar() {
-        List<Empleado> list = empleadoRepository.findAll();
-        return list.stream().map(e -> {
+    public ResponseEntity<List<EmpleadoWithSucursalDTO>> listar(@RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + PaginadorKeyset.LIMITE_POR_DEFECTO) int limit,
+            ServletWebRequest request) {
+        return Condicional.responder(request, versiones.de(VersionesService.EMPLEADOS, VersionesService.SUCURSALES),
+                () -> listarPagina(after, limit));
+    }
+
+    private ResponseEntity<List<EmpleadoWithSucursalDTO>> listarPagina(String after, int limit) {
+        // Sucursales resueltas en bloque (un $in) en lugar de una consulta por empleado
+        Pagina<Empleado> pagina = paginador.pagina(new Query(), Empleado.class, Empleado::getId, after, limit);
+        return Paginas.respuesta(pagina.map(e -> {
             EmpleadoWithSucursalDTO dto = new EmpleadoWithSucursalDTO();
             dto.setId(e.getId());
             dto.setNombre(e.getNombre());
@@ -41,7 +63,7 @@ public class EmpleadoController {
                 dto.setSucursalNombre(e.getSucursal().getNombre());
             }
             return dto;
-        }).toList();
+        }));
     }
 
     // 🔹 Crear nuevo empleado
@@ -53,7 +75,7 @@ public class EmpleadoController {
         e.setCargo(dto.getCargo());
         e.setSalario(dto.getSalario());
         e.setEmail(dto.getEmail());
-        e.setPassword(dto.getPassword());
+        e.setPassword(dto.getPassword() != null ? passwordEncoder.encode(dto.getPassword()) : null);
         e.setRole(dto.getRole());
 
         if (dto.getRole() == Role.EMPLOYEE) {
@@ -66,7 +88,9 @@ public class EmpleadoController {
             e.setSucursal(null);
         }
 
-        return empleadoRepository.save(e);
+        Empleado guardado = empleadoRepository.save(e);
+        versiones.tocar(VersionesService.EMPLEADOS);
+        return guardado;
     }
 
     // 🔹 Actualizar empleado
@@ -80,7 +104,10 @@ public class EmpleadoController {
         e.setCargo(dto.getCargo());
         e.setSalario(dto.getSalario());
         e.setEmail(dto.getEmail());
-        e.setPassword(dto.getPassword());
+        // Sin contraseña en la edición se conserva la actual
+        if (dto.getPassword() != null && !dto.getPassword().isBlank()) {
+            e.setPassword(passwordEncoder.encode(dto.getPassword()));
+        }
         e.setRole(dto.getRole());
 
         if (dto.getRole() == Role.EMPLOYEE) {
@@ -93,19 +120,23 @@ public class EmpleadoController {
             e.setSucursal(null);
         }
 
-        return empleadoRepository.save(e);
+        Empleado guardado = empleadoRepository.save(e);
+        versiones.tocar(VersionesService.EMPLEADOS);
+        return guardado;
     }
 
     // 🔹 Eliminar empleado
     @DeleteMapping("/{id}")
     public void eliminar(@PathVariable String id) {
         empleadoRepository.deleteById(id);
+        versiones.tocar(VersionesService.EMPLEADOS);
     }
 
     // 🔹 Obtener un empleado por ID
     @GetMapping("/{id}")
-    public Empleado obtener(@PathVariable String id) {
-        return empleadoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Empleado no encontrado"));
+    public ResponseEntity<Empleado> obtener(@PathVariable String id, ServletWebRequest request) {
+        return Condicional.responder(request, versiones.de(VersionesService.EMPLEADOS, VersionesService.SUCURSALES),
+                () -> ResponseEntity.ok(empleadoRepository.findById(id)
+                        .orElseThrow(() -> new RuntimeException("Empleado no encontrado"))));
     }
 }
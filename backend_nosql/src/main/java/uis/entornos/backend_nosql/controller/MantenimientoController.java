@@ -0,0 +1,25 @@
+package uis.entornos.backend_nosql.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import uis.entornos.backend_nosql.service.MigracionMontosService;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/mantenimiento")
+@CrossOrigin(origins = "*")
+public class MantenimientoController {
+
+    private final MigracionMontosService migracionMontos;
+
+    public MantenimientoController(MigracionMontosService migracionMontos) {
+        this.migracionMontos = migracionMontos;
+    }
+
+    // 🔹 Convierte a Decimal128 los montos guardados como String; devuelve documentos actualizados por colección
+    @PostMapping("/montos/migrar")
+    public ResponseEntity<Map<String, Long>> migrarMontos() {
+        return ResponseEntity.ok(migracionMontos.migrar());
+    }
+}
@@ -0,0 +1,23 @@
+package uis.entornos.backend_nosql.controller;
+
+import org.springframework.http.ResponseEntity;
+import uis.entornos.backend_nosql.repository.Pagina;
+
+import java.util.List;
+
+// Respuesta común de los listados por cursor: el cursor de la página siguiente va en X-Next-Cursor
+final class Paginas {
+
+    static final String SIGUIENTE = "X-Next-Cursor";
+
+    private Paginas() {
+    }
+
+    static <T> ResponseEntity<List<T>> respuesta(Pagina<T> pagina) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (pagina.siguiente() != null) {
+            ok.header(SIGUIENTE, pagina.siguiente());
+        }
+        return ok.body(pagina.contenido());
+    }
+}
@@ -1,13 +1,27 @@
 package uis.entornos.backend_nosql.controller;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import reactor.core.publisher.Flux;
 import uis.entornos.backend_nosql.model.Producto;
 import uis.entornos.backend_nosql.model.Sucursal;
+import uis.entornos.backend_nosql.repository.Pagina;
+import uis.entornos.backend_nosql.repository.PaginadorKeyset;
 import uis.entornos.backend_nosql.repository.ProductoRepository;
+import uis.entornos.backend_nosql.repository.ReactiveProductoRepository;
 import uis.entornos.backend_nosql.repository.SucursalRepository;
+import uis.entornos.backend_nosql.dto.CambiosProductoDTO;
 import uis.entornos.backend_nosql.dto.ProductoDTO;
+import uis.entornos.backend_nosql.service.BusquedaService;
+import uis.entornos.backend_nosql.service.CambiosProductoService;
+import uis.entornos.backend_nosql.service.CatalogoCacheService;
+import uis.entornos.backend_nosql.service.InventarioService;
+import uis.entornos.backend_nosql.service.VersionesService;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/productos")
@@ -15,56 +29,106 @@ import java.util.List;
 public class ProductoController {
 
     private final ProductoRepository productoRepository;
+    private final ReactiveProductoRepository productoReactivoRepository;
     private final SucursalRepository sucursalRepository;
-
-    public ProductoController(ProductoRepository productoRepository, SucursalRepository sucursalRepository) {
+    private final InventarioService inventarioService;
+    private final CatalogoCacheService catalogoCache;
+    private final BusquedaService busqueda;
+    private final VersionesService versiones;
+    private final CambiosProductoService cambiosProducto;
+
+    public ProductoController(ProductoRepository productoRepository, ReactiveProductoRepository productoReactivoRepository,
+            SucursalRepository sucursalRepository, InventarioService inventarioService, CatalogoCacheService catalogoCache,
+            BusquedaService busqueda, VersionesService versiones, CambiosProductoService cambiosProducto) {
         this.productoRepository = productoRepository;
+        this.productoReactivoRepository = productoReactivoRepository;
         this.sucursalRepository = sucursalRepository;
+        this.inventarioService = inventarioService;
+        this.catalogoCache = catalogoCache;
+        this.busqueda = busqueda;
+        this.versiones = versiones;
+        this.cambiosProducto = cambiosProducto;
     }
 
-    // 🔹 Listar productos (opcionalmente filtrados por sucursal)
+    // 🔹 Listar productos (opcionalmente filtrados por sucursal) por cursor, servido desde la caché del catálogo.
+    // El stock cambia con las ventas, así que el ETag también: las terminales sin cambios reciben 304
     @GetMapping
-    public List<uis.entornos.backend_nosql.dto.ProductoResponseDTO> listar(@RequestParam(name = "sucursalId", required = false) String sucursalId) {
-        List<Producto> productos;
-        if (sucursalId != null) {
-            // Buscar la sucursal para filtrar por referencia
-            Sucursal s = sucursalRepository.findById(sucursalId)
-                    .orElseThrow(() -> new RuntimeException("Sucursal no encontrada"));
-            productos = productoRepository.findBySucursal(s);
-        } else {
-            productos = productoRepository.findAll();
+    public ResponseEntity<List<uis.entornos.backend_nosql.dto.ProductoResponseDTO>> listar(
+            @RequestParam(name = "sucursalId", required = false) String sucursalId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + PaginadorKeyset.LIMITE_POR_DEFECTO) int limit,
+            ServletWebRequest request) {
+        return Condicional.responder(request, versiones.de(VersionesService.PRODUCTOS, VersionesService.SUCURSALES),
+                () -> Paginas.respuesta(catalogoCache.obtener(sucursalId, after, limit,
+                        () -> construirCatalogo(sucursalId, after, limit))));
+    }
+
+    // 🔹 Búsqueda por prefijo del nombre (typeahead), desde el índice en memoria; sin stock
+    @GetMapping("/search")
+    public List<uis.entornos.backend_nosql.dto.ProductoResponseDTO> buscar(@RequestParam String q,
+            @RequestParam(name = "sucursalId", required = false) String sucursalId,
+            @RequestParam(defaultValue = "" + BusquedaService.LIMITE_POR_DEFECTO) int limit) {
+        return busqueda.buscarProductos(q, sucursalId, limit);
+    }
+
+    // 🔹 Sincronización incremental: solo los productos que cambiaron (o se eliminaron)
+    // después de la secuencia `since`; la respuesta trae la secuencia para la próxima consulta
+    @GetMapping("/changes")
+    public CambiosProductoDTO cambios(@RequestParam(defaultValue = "0") long since,
+            @RequestParam(name = "sucursalId", required = false) String sucursalId,
+            @RequestParam(defaultValue = "" + CambiosProductoService.LIMITE_POR_DEFECTO) int limit) {
+        return cambiosProducto.cambios(since, sucursalId, limit);
+    }
+
+    // 🔹 Aciertos/fallos de la caché del catálogo
+    @GetMapping("/cache")
+    public Map<String, Object> estadisticasCache() {
+        return catalogoCache.estadisticas();
+    }
+
+    private Pagina<uis.entornos.backend_nosql.dto.ProductoResponseDTO> construirCatalogo(String sucursalId, String after, int limit) {
+        if (sucursalId != null && !sucursalRepository.existsById(sucursalId)) {
+            throw new RuntimeException("Sucursal no encontrada");
         }
+        // Sucursales resueltas en bloque (un $in) en lugar de una consulta por producto
+        Pagina<Producto> productos = productoRepository.paginarPorCursor(sucursalId, after, limit);
 
         // Mapear a DTO de respuesta con nombre de sucursal
-        List<uis.entornos.backend_nosql.dto.ProductoResponseDTO> respuesta = new java.util.ArrayList<>();
-        for (Producto p : productos) {
-            uis.entornos.backend_nosql.dto.ProductoResponseDTO dto = new uis.entornos.backend_nosql.dto.ProductoResponseDTO();
-            dto.setId(p.getId());
-            dto.setNombre(p.getNombre());
-            dto.setPrecio(p.getPrecio());
-            dto.setStock(p.getStock());
-
-            // Intentar obtener id/nombre de la sucursal de forma segura
-            if (p.getSucursal() != null) {
-                String sucId = p.getSucursal().getId();
-                dto.setSucursalId(sucId);
-                // Puede que la referencia DBRef no esté poblada; si no hay nombre, fetch explícito
-                String sucNombre = p.getSucursal().getNombre();
-                if (sucNombre == null || sucNombre.isEmpty()) {
-                    // intentar cargar desde el repositorio
-                    Sucursal sFull = sucursalRepository.findById(sucId).orElse(null);
-                    if (sFull != null) sucNombre = sFull.getNombre();
-                }
-                dto.setSucursalNombre(sucNombre);
-            } else {
-                dto.setSucursalId(null);
-                dto.setSucursalNombre(null);
-            }
+        return productos.map(p -> aRespuesta(p, true));
+    }
 
-            respuesta.add(dto);
-        }
+    // 🔹 Catálogo reactivo (NDJSON): los productos se emiten por lotes, sin armar la lista completa
+    @GetMapping(value = "/reactivo", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<uis.entornos.backend_nosql.dto.ProductoResponseDTO> listarReactivo(@RequestParam(name = "sucursalId", required = false) String sucursalId) {
+        // Sin búsquedas bloqueantes de la sucursal: el nombre ya viene resuelto en el lote
+        return productoReactivoRepository.listarPorSucursal(sucursalId)
+                .map(p -> aRespuesta(p, false));
+    }
 
-        return respuesta;
+    private uis.entornos.backend_nosql.dto.ProductoResponseDTO aRespuesta(Producto p, boolean completarSucursal) {
+        uis.entornos.backend_nosql.dto.ProductoResponseDTO dto = new uis.entornos.backend_nosql.dto.ProductoResponseDTO();
+        dto.setId(p.getId());
+        dto.setNombre(p.getNombre());
+        dto.setPrecio(p.getPrecio());
+        dto.setStock(p.getStock());
+
+        // Intentar obtener id/nombre de la sucursal de forma segura
+        if (p.getSucursal() != null) {
+            String sucId = p.getSucursal().getId();
+            dto.setSucursalId(sucId);
+            // Puede que la referencia DBRef no esté poblada; si no hay nombre, fetch explícito
+            String sucNombre = p.getSucursal().getNombre();
+            if (completarSucursal && (sucNombre == null || sucNombre.isEmpty())) {
+                // intentar cargar desde el repositorio
+                Sucursal sFull = sucursalRepository.findById(sucId).orElse(null);
+                if (sFull != null) sucNombre = sFull.getNombre();
+            }
+            dto.setSucursalNombre(sucNombre);
+        } else {
+            dto.setSucursalId(null);
+            dto.setSucursalNombre(null);
+        }
+        return dto;
     }
 
     // 🔹 Crear producto
@@ -84,7 +148,11 @@ public class ProductoController {
                 .orElseThrow(() -> new RuntimeException("Sucursal no encontrada"));
         p.setSucursal(s);
 
-        return productoRepository.save(p);
+        Producto guardado = cambiosProducto.guardar(p, null);
+        catalogoCache.invalidarSucursal(s.getId());
+        busqueda.indexarProducto(guardado);
+        versiones.tocar(VersionesService.PRODUCTOS);
+        return guardado;
     }
 
     // 🔹 Actualizar producto
@@ -95,6 +163,8 @@ public class ProductoController {
             throw new RuntimeException("La sucursal es obligatoria");
         }
 
+        // Se vuelcan las reservas pendientes antes de leer y fijar el stock nuevo
+        inventarioService.invalidar(id);
         Producto p = productoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Producto no existe"));
 
@@ -102,23 +172,37 @@ public class ProductoController {
         p.setPrecio(dto.getPrecio());
         p.setStock(dto.getStock());
 
+        // Si cambia de sucursal hay que invalidar también la anterior
+        String sucursalAnterior = p.getSucursal() != null ? p.getSucursal().getId() : null;
         Sucursal s = sucursalRepository.findById(dto.getSucursalId())
                 .orElseThrow(() -> new RuntimeException("Sucursal no encontrada"));
         p.setSucursal(s);
 
-        return productoRepository.save(p);
+        Producto guardado = cambiosProducto.guardar(p, sucursalAnterior);
+        inventarioService.invalidar(id);
+        catalogoCache.invalidarSucursal(sucursalAnterior);
+        catalogoCache.invalidarSucursal(s.getId());
+        busqueda.indexarProducto(guardado);
+        versiones.tocar(VersionesService.PRODUCTOS);
+        return guardado;
     }
 
     // 🔹 Eliminar producto
     @DeleteMapping("/{id}")
     public void eliminar(@PathVariable String id) {
-        productoRepository.deleteById(id);
+        cambiosProducto.eliminar(id).ifPresent(p -> {
+            inventarioService.invalidar(id);
+            busqueda.quitarProducto(id);
+            catalogoCache.invalidarSucursal(p.getSucursal() != null ? p.getSucursal().getId() : null);
+            versiones.tocar(VersionesService.PRODUCTOS);
+        });
     }
 
     // 🔹 Obtener producto por ID
     @GetMapping("/{id}")
-    public Producto obtener(@PathVariable String id) {
-        return productoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("No encontrado"));
+    public ResponseEntity<Producto> obtener(@PathVariable String id, ServletWebRequest request) {
+        return Condicional.responder(request, versiones.de(VersionesService.PRODUCTOS, VersionesService.SUCURSALES),
+                () -> ResponseEntity.ok(productoRepository.findById(id)
+                        .orElseThrow(() -> new RuntimeException("No encontrado"))));
     }
 }
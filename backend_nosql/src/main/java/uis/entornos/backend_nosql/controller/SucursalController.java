@@ -1,10 +1,26 @@
 package uis.entornos.backend_nosql.controller;
 
+import uis.entornos.backend_nosql.dto.ConteoSucursalDTO;
+import uis.entornos.backend_nosql.model.Empleado;
+import uis.entornos.backend_nosql.model.Producto;
 import uis.entornos.backend_nosql.model.Sucursal;
+import uis.entornos.backend_nosql.repository.EmpleadoRepository;
+import uis.entornos.backend_nosql.repository.PaginadorKeyset;
+import uis.entornos.backend_nosql.repository.ProductoRepository;
 import uis.entornos.backend_nosql.repository.SucursalRepository;
+import uis.entornos.backend_nosql.service.BusquedaService;
+import uis.entornos.backend_nosql.service.CambiosProductoService;
+import uis.entornos.backend_nosql.service.CatalogoCacheService;
+import uis.entornos.backend_nosql.service.VersionesService;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/sucursales")
@@ -12,34 +28,104 @@ import java.util.List;
 public class SucursalController {
 
     private final SucursalRepository sucursalRepository;
+    private final ProductoRepository productoRepository;
+    private final EmpleadoRepository empleadoRepository;
+    private final CatalogoCacheService catalogoCache;
+    private final BusquedaService busqueda;
+    private final PaginadorKeyset paginador;
+    private final VersionesService versiones;
+    private final CambiosProductoService cambiosProducto;
 
-    public SucursalController(SucursalRepository sucursalRepository) {
+    public SucursalController(SucursalRepository sucursalRepository, ProductoRepository productoRepository,
+            EmpleadoRepository empleadoRepository, CatalogoCacheService catalogoCache, BusquedaService busqueda,
+            PaginadorKeyset paginador, VersionesService versiones, CambiosProductoService cambiosProducto) {
         this.sucursalRepository = sucursalRepository;
+        this.productoRepository = productoRepository;
+        this.empleadoRepository = empleadoRepository;
+        this.catalogoCache = catalogoCache;
+        this.busqueda = busqueda;
+        this.paginador = paginador;
+        this.versiones = versiones;
+        this.cambiosProducto = cambiosProducto;
     }
 
+    // 🔹 Listar por páginas de cursor (after/limit); el cursor siguiente va en X-Next-Cursor.
+    // Con If-None-Match del ETag actual responde 304 sin consultar Mongo
     @GetMapping
-    public List<Sucursal> listar() {
-        return sucursalRepository.findAll();
+    public ResponseEntity<List<Sucursal>> listar(@RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + PaginadorKeyset.LIMITE_POR_DEFECTO) int limit,
+            ServletWebRequest request) {
+        return Condicional.responder(request, versiones.de(VersionesService.SUCURSALES),
+                () -> Paginas.respuesta(paginador.pagina(new Query(), Sucursal.class, Sucursal::getId, after, limit)));
     }
 
     @PostMapping
     public Sucursal crear(@RequestBody Sucursal sucursal) {
-        return sucursalRepository.save(sucursal);
+        Sucursal guardada = sucursalRepository.save(sucursal);
+        versiones.tocar(VersionesService.SUCURSALES);
+        return guardada;
     }
 
     @GetMapping("/{id}")
-    public Sucursal obtenerPorId(@PathVariable String id) {
-        return sucursalRepository.findById(id).orElse(null);
+    public ResponseEntity<Sucursal> obtenerPorId(@PathVariable String id, ServletWebRequest request) {
+        return Condicional.responder(request, versiones.de(VersionesService.SUCURSALES),
+                () -> ResponseEntity.ok(sucursalRepository.findById(id).orElse(null)));
+    }
+
+    // 🔹 Productos de la sucursal por páginas de cursor (after/limit) en orden de nombre;
+    // el cursor siguiente va en X-Next-Cursor
+    @GetMapping("/{id}/productos")
+    public ResponseEntity<List<Producto>> productos(@PathVariable String id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit,
+            ServletWebRequest request) {
+        return Condicional.responder(request, versiones.de(VersionesService.PRODUCTOS, VersionesService.SUCURSALES),
+                () -> Paginas.respuesta(productoRepository.paginarPorSucursal(id, after, limit)));
+    }
+
+    // 🔹 Empleados de la sucursal por páginas de cursor (after/limit) en orden de nombre;
+    // el cursor siguiente va en X-Next-Cursor
+    @GetMapping("/{id}/empleados")
+    public ResponseEntity<List<Empleado>> empleados(@PathVariable String id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit,
+            ServletWebRequest request) {
+        return Condicional.responder(request, versiones.de(VersionesService.EMPLEADOS, VersionesService.SUCURSALES),
+                () -> Paginas.respuesta(empleadoRepository.paginarPorSucursal(id, after, limit)));
+    }
+
+    // 🔹 Cantidad de productos y empleados de cada sucursal (un $group por colección)
+    @GetMapping("/conteos")
+    public List<ConteoSucursalDTO> conteos() {
+        Map<String, Long> productos = productoRepository.contarPorSucursal();
+        Map<String, Long> empleados = empleadoRepository.contarPorSucursal();
+        List<ConteoSucursalDTO> conteos = new ArrayList<>();
+        for (Sucursal s : sucursalRepository.findAll()) {
+            conteos.add(new ConteoSucursalDTO(s.getId(), s.getNombre(),
+                    productos.getOrDefault(s.getId(), 0L), empleados.getOrDefault(s.getId(), 0L)));
+        }
+        return conteos;
     }
 
     @PutMapping("/{id}")
     public Sucursal actualizar(@PathVariable String id, @RequestBody Sucursal sucursal) {
+        String nombreAnterior = sucursalRepository.findById(id).map(Sucursal::getNombre).orElse(null);
         sucursal.setId(id);
-        return sucursalRepository.save(sucursal);
+        Sucursal guardada = sucursalRepository.save(sucursal);
+        // El catálogo, el índice de búsqueda y /productos/changes llevan el nombre de la sucursal
+        catalogoCache.invalidarSucursal(id);
+        busqueda.renombrarSucursal(guardada);
+        if (!Objects.equals(nombreAnterior, guardada.getNombre())) {
+            cambiosProducto.sucursalRenombrada(id);
+        }
+        versiones.tocar(VersionesService.SUCURSALES);
+        return guardada;
     }
 
     @DeleteMapping("/{id}")
     public void eliminar(@PathVariable String id) {
         sucursalRepository.deleteById(id);
+        catalogoCache.invalidarSucursal(id);
+        versiones.tocar(VersionesService.SUCURSALES);
     }
 }
@@ -1,15 +1,39 @@
 package uis.entornos.backend_nosql.controller;
 
+import uis.entornos.backend_nosql.dto.ResultadoVentaDTO;
+import uis.entornos.backend_nosql.dto.ResumenVentasDTO;
 import uis.entornos.backend_nosql.dto.VentaDTO;
+import uis.entornos.backend_nosql.dto.VentasEnVivoDTO;
 import uis.entornos.backend_nosql.model.Venta;
+import uis.entornos.backend_nosql.model.VentaDiaria;
+import uis.entornos.backend_nosql.service.ExportacionVentasService;
+import uis.entornos.backend_nosql.service.VentaDiariaService;
 import uis.entornos.backend_nosql.service.VentaService;
-import uis.entornos.backend_nosql.repository.VentaRepository;
+import uis.entornos.backend_nosql.service.VentasEnVivoService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import java.math.BigDecimal;
 import org.springframework.format.annotation.DateTimeFormat;
 
@@ -18,12 +42,23 @@ import org.springframework.format.annotation.DateTimeFormat;
 @CrossOrigin(origins = "*")
 public class VentaController {
 
+    // Cada cuántas ventas se vacía el buffer hacia el cliente
+    private static final int STREAM_FLUSH_EVERY = 100;
+
     private final VentaService ventaService;
-    private final VentaRepository ventaRepository;
+    private final VentaDiariaService ventaDiariaService;
+    private final VentasEnVivoService ventasEnVivoService;
+    private final ExportacionVentasService exportacionService;
+    private final ObjectMapper objectMapper;
 
-    public VentaController(VentaService ventaService, VentaRepository ventaRepository) {
+    public VentaController(VentaService ventaService, VentaDiariaService ventaDiariaService,
+            VentasEnVivoService ventasEnVivoService, ExportacionVentasService exportacionService,
+            ObjectMapper objectMapper) {
         this.ventaService = ventaService;
-        this.ventaRepository = ventaRepository;
+        this.ventaDiariaService = ventaDiariaService;
+        this.ventasEnVivoService = ventasEnVivoService;
+        this.exportacionService = exportacionService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -31,6 +66,69 @@ public class VentaController {
         return ventaService.listarTodas();
     }
 
+    // 🔹 Listar ventas en streaming: una venta JSON por línea, leída del cursor de Mongo
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listarVentasStream() {
+        // Sin flush por documento: se vacía la primera línea y luego cada bloque
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (Stream<Venta> ventas = ventaService.streamTodas();
+                    JsonGenerator gen = writer.createGenerator(out)) {
+                int escritas = 0;
+                Iterator<Venta> it = ventas.iterator();
+                while (it.hasNext()) {
+                    writer.writeValue(gen, it.next());
+                    gen.writeRaw('\n');
+                    escritas++;
+                    if (escritas == 1 || escritas % STREAM_FLUSH_EVERY == 0) {
+                        gen.flush();
+                    }
+                }
+                gen.flush();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // 🔹 Todos los hilos de streaming ocupados y la cola llena (ver WebConfig): que reintente luego
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<String> streamingOcupado() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{ \"error\": \"Demasiadas descargas en curso, intente más tarde\" }");
+    }
+
+    // 🔹 Exportar a CSV (mismos filtros que /filtrar), escrito directo desde el cursor de Mongo.
+    // detalle=true: una fila por producto vendido; gzip=true: respuesta comprimida
+    @GetMapping("/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportarCsv(
+            @RequestParam(required = false) String sucursalId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(defaultValue = "false") boolean detalle,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                // syncFlush: cada flush del CSV llega al cliente sin esperar a cerrar el gzip
+                GZIPOutputStream comprimido = new GZIPOutputStream(out, 8192, true);
+                exportacionService.escribirCsv(sucursalId, fechaInicio, fechaFin, detalle, comprimido);
+                comprimido.finish();
+            } else {
+                exportacionService.escribirCsv(sucursalId, fechaInicio, fechaFin, detalle, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + (detalle ? "ventas-detalle.csv" : "ventas.csv") + "\"");
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(body);
+    }
+
     @PostMapping
     public ResponseEntity<?> registrarVenta(@RequestBody VentaDTO dto) {
         System.out.println("CLIENTE ID: " + dto.getClienteId());
@@ -47,25 +145,97 @@ public class VentaController {
         }
     }
 
+    // 🔹 Lote de ventas de una caja que estuvo sin conexión; un resultado por venta, en el mismo orden
+    @PostMapping("/batch")
+    public ResponseEntity<?> registrarLote(@RequestBody List<VentaDTO> ventas) {
+        try {
+            List<ResultadoVentaDTO> resultados = ventaService.registrarLote(ventas);
+            return ResponseEntity.ok(resultados);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("{ \"error\": \"" + e.getMessage() + "\" }");
+        }
+    }
+
+    // 🔹 Total de hoy: lectura de los resúmenes diarios (sin recorrer "ventas")
     @GetMapping("/hoy")
     public ResponseEntity<Double> getVentasDeHoy() {
-        LocalDate hoy = LocalDate.now();
-        LocalDateTime inicio = hoy.atStartOfDay();
-        LocalDateTime fin = hoy.plusDays(1).atStartOfDay();
-
-        double total = ventaRepository.sumTotalByFechaRange(inicio, fin)
-                .orElse(0.0); // si no hay ventas hoy, devuelve 0
+        double total = ventaDiariaService.totalDelDia(LocalDate.now()).doubleValue();
         return ResponseEntity.ok(total);
     }
 
+    // 🔹 Contadores del día en vivo (Server-Sent Events, evento "ventas")
+    @GetMapping(value = "/en-vivo", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter ventasEnVivo() {
+        return ventasEnVivoService.suscribir();
+    }
+
+    // 🔹 Misma foto de los contadores, para consultarla una sola vez
+    @GetMapping("/en-vivo/actual")
+    public VentasEnVivoDTO ventasEnVivoActual() {
+        return ventasEnVivoService.foto();
+    }
+
+    // 🔹 Resúmenes diarios por sucursal (por defecto, los últimos 30 días)
+    @GetMapping("/diarias")
+    public List<VentaDiaria> ventasDiarias(
+            @RequestParam(required = false) String sucursalId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(30);
+        return ventaDiariaService.listar(inicio, fin, sucursalId);
+    }
+
+    // 🔹 Totales por mes a partir de los resúmenes diarios (por defecto, el último año)
+    @GetMapping("/mensuales")
+    public List<ResumenVentasDTO> ventasMensuales(
+            @RequestParam(required = false) String sucursalId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusYears(1).withDayOfMonth(1);
+        return ventaDiariaService.resumenMensual(inicio, fin, sucursalId);
+    }
+
+    // 🔹 Reconstruye los resúmenes diarios del rango a partir de "ventas"
+    @PostMapping("/diarias/reconstruir")
+    public ResponseEntity<?> reconstruirDiarias(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        int resumenes = ventaDiariaService.reconstruir(desde, hasta);
+        return ResponseEntity.ok(Map.of("resumenes", resumenes));
+    }
+
+    // 🔹 Versión reactiva (NDJSON): se lee del cursor solo lo que el cliente va consumiendo
+    @GetMapping(value = "/reactivo", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Venta> listarVentasReactivo() {
+        return ventaService.listarReactivo();
+    }
+
+    @GetMapping(value = "/reactivo/filtrar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Venta> filtrarVentasReactivo(
+            @RequestParam(required = false) String sucursalId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+        return ventaService.filtrarReactivo(sucursalId, fechaInicio, fechaFin);
+    }
+
+    // 🔹 Filtrar ventas; con page/size se pagina y el total va en X-Total-Count
     @GetMapping("/filtrar")
     public ResponseEntity<List<Venta>> filtrarVentas(
             @RequestParam(required = false) String sucursalId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<Venta> ventasFiltradas = ventaService.filtrarVentas(sucursalId, fechaInicio, fechaFin);
-            return ResponseEntity.ok(ventasFiltradas);
+            Pageable pageable = (page != null || size != null)
+                    ? PageRequest.of(page != null ? page : 0, size != null ? size : 50)
+                    : Pageable.unpaged();
+            Page<Venta> ventasFiltradas = ventaService.filtrarVentas(sucursalId, fechaInicio, fechaFin, pageable);
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(ventasFiltradas.getTotalElements()))
+                    .body(ventasFiltradas.getContent());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
         }
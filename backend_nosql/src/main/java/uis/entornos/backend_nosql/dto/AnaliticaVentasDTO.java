@@ -0,0 +1,177 @@
+package uis.entornos.backend_nosql.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Respuesta de /api/ventas/analitica: todo sale de una sola agregación sobre "ventas".
+ */
+public class AnaliticaVentasDTO {
+
+    private long cantidadVentas;
+    private long unidades;
+    private BigDecimal ingresos;
+    private BigDecimal ticketPromedio;
+    private List<ProductoTop> topPorUnidades;
+    private List<ProductoTop> topPorIngresos;
+    private List<IngresoSucursal> porSucursal;
+    private List<VentasEmpleado> porEmpleado;
+
+    public AnaliticaVentasDTO(long cantidadVentas, long unidades, BigDecimal ingresos, BigDecimal ticketPromedio,
+            List<ProductoTop> topPorUnidades, List<ProductoTop> topPorIngresos,
+            List<IngresoSucursal> porSucursal, List<VentasEmpleado> porEmpleado) {
+        this.cantidadVentas = cantidadVentas;
+        this.unidades = unidades;
+        this.ingresos = ingresos;
+        this.ticketPromedio = ticketPromedio;
+        this.topPorUnidades = topPorUnidades;
+        this.topPorIngresos = topPorIngresos;
+        this.porSucursal = porSucursal;
+        this.porEmpleado = porEmpleado;
+    }
+
+    public long getCantidadVentas() {
+        return cantidadVentas;
+    }
+
+    public long getUnidades() {
+        return unidades;
+    }
+
+    public BigDecimal getIngresos() {
+        return ingresos;
+    }
+
+    public BigDecimal getTicketPromedio() {
+        return ticketPromedio;
+    }
+
+    public List<ProductoTop> getTopPorUnidades() {
+        return topPorUnidades;
+    }
+
+    public List<ProductoTop> getTopPorIngresos() {
+        return topPorIngresos;
+    }
+
+    public List<IngresoSucursal> getPorSucursal() {
+        return porSucursal;
+    }
+
+    public List<VentasEmpleado> getPorEmpleado() {
+        return porEmpleado;
+    }
+
+    /**
+     * Unidades e ingresos de un producto en el rango.
+     */
+    public static class ProductoTop {
+        private String productoId;
+        private String nombre;
+        private long unidades;
+        private BigDecimal ingresos;
+
+        public ProductoTop(String productoId, String nombre, long unidades, BigDecimal ingresos) {
+            this.productoId = productoId;
+            this.nombre = nombre;
+            this.unidades = unidades;
+            this.ingresos = ingresos;
+        }
+
+        public String getProductoId() {
+            return productoId;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public long getUnidades() {
+            return unidades;
+        }
+
+        public BigDecimal getIngresos() {
+            return ingresos;
+        }
+    }
+
+    /**
+     * Ingresos de una sucursal en un periodo (día "2025-10-03", semana "2025-W40" o mes "2025-10").
+     */
+    public static class IngresoSucursal {
+        private String periodo;
+        private String sucursalId;
+        private String sucursalNombre;
+        private long cantidadVentas;
+        private BigDecimal ingresos;
+
+        public IngresoSucursal(String periodo, String sucursalId, String sucursalNombre, long cantidadVentas,
+                BigDecimal ingresos) {
+            this.periodo = periodo;
+            this.sucursalId = sucursalId;
+            this.sucursalNombre = sucursalNombre;
+            this.cantidadVentas = cantidadVentas;
+            this.ingresos = ingresos;
+        }
+
+        public String getPeriodo() {
+            return periodo;
+        }
+
+        public String getSucursalId() {
+            return sucursalId;
+        }
+
+        public String getSucursalNombre() {
+            return sucursalNombre;
+        }
+
+        public long getCantidadVentas() {
+            return cantidadVentas;
+        }
+
+        public BigDecimal getIngresos() {
+            return ingresos;
+        }
+    }
+
+    /**
+     * Ventas de un empleado en el rango.
+     */
+    public static class VentasEmpleado {
+        private String empleadoId;
+        private String nombre;
+        private long cantidadVentas;
+        private BigDecimal ingresos;
+        private BigDecimal ticketPromedio;
+
+        public VentasEmpleado(String empleadoId, String nombre, long cantidadVentas, BigDecimal ingresos,
+                BigDecimal ticketPromedio) {
+            this.empleadoId = empleadoId;
+            this.nombre = nombre;
+            this.cantidadVentas = cantidadVentas;
+            this.ingresos = ingresos;
+            this.ticketPromedio = ticketPromedio;
+        }
+
+        public String getEmpleadoId() {
+            return empleadoId;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public long getCantidadVentas() {
+            return cantidadVentas;
+        }
+
+        public BigDecimal getIngresos() {
+            return ingresos;
+        }
+
+        public BigDecimal getTicketPromedio() {
+            return ticketPromedio;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package uis.entornos.backend_nosql.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Respuesta de /api/productos/changes: los cambios de productos con secuencia mayor
+ * a {@code desde}, en orden. La caja guarda {@code siguiente} y lo manda como
+ * {@code since} en la próxima consulta.
+ */
+public class CambiosProductoDTO {
+
+    private long desde;
+    private long siguiente;
+    private boolean hayMas;
+    private boolean recargar;
+    private List<Cambio> cambios;
+
+    public CambiosProductoDTO(long desde, long siguiente, boolean hayMas, boolean recargar, List<Cambio> cambios) {
+        this.desde = desde;
+        this.siguiente = siguiente;
+        this.hayMas = hayMas;
+        this.recargar = recargar;
+        this.cambios = cambios;
+    }
+
+    public long getDesde() {
+        return desde;
+    }
+
+    public long getSiguiente() {
+        return siguiente;
+    }
+
+    /**
+     * Quedaron cambios sin enviar por el límite: consultar de nuevo desde {@code siguiente}.
+     */
+    public boolean isHayMas() {
+        return hayMas;
+    }
+
+    /**
+     * Las bajas anteriores a {@code desde} ya se purgaron: la caja debe descartar su
+     * copia y sincronizar desde 0.
+     */
+    public boolean isRecargar() {
+        return recargar;
+    }
+
+    public List<Cambio> getCambios() {
+        return cambios;
+    }
+
+    /**
+     * Estado actual de un producto, o su baja ({@code eliminado}, solo con id y sucursal).
+     * Un producto que cambió de sucursal llega como baja en la anterior y alta en la nueva.
+     */
+    public static class Cambio {
+        private long secuencia;
+        private String id;
+        private boolean eliminado;
+        private String nombre;
+        private BigDecimal precio;
+        private Integer stock;
+        private String sucursalId;
+        private String sucursalNombre;
+
+        public Cambio(long secuencia, String id, boolean eliminado, String nombre, BigDecimal precio, Integer stock,
+                String sucursalId, String sucursalNombre) {
+            this.secuencia = secuencia;
+            this.id = id;
+            this.eliminado = eliminado;
+            this.nombre = nombre;
+            this.precio = precio;
+            this.stock = stock;
+            this.sucursalId = sucursalId;
+            this.sucursalNombre = sucursalNombre;
+        }
+
+        public long getSecuencia() {
+            return secuencia;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public boolean isEliminado() {
+            return eliminado;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public BigDecimal getPrecio() {
+            return precio;
+        }
+
+        public Integer getStock() {
+            return stock;
+        }
+
+        public String getSucursalId() {
+            return sucursalId;
+        }
+
+        public String getSucursalNombre() {
+            return sucursalNombre;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package uis.entornos.backend_nosql.dto;
+
+/**
+ * Cantidad de productos y empleados de una sucursal (/api/sucursales/conteos).
+ */
+public class ConteoSucursalDTO {
+
+    private String sucursalId;
+    private String nombre;
+    private long productos;
+    private long empleados;
+
+    public ConteoSucursalDTO(String sucursalId, String nombre, long productos, long empleados) {
+        this.sucursalId = sucursalId;
+        this.nombre = nombre;
+        this.productos = productos;
+        this.empleados = empleados;
+    }
+
+    public String getSucursalId() {
+        return sucursalId;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public long getProductos() {
+        return productos;
+    }
+
+    public long getEmpleados() {
+        return empleados;
+    }
+}
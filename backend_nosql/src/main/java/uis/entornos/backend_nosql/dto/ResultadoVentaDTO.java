@@ -0,0 +1,74 @@
+package uis.entornos.backend_nosql.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Resultado de cada venta de POST /api/ventas/batch, en el mismo orden del lote.
+ */
+public class ResultadoVentaDTO {
+
+    private int indice;
+    private boolean registrada;
+    private String ventaId;
+    private BigDecimal total;
+    private String error;
+
+    public ResultadoVentaDTO() {
+    }
+
+    public static ResultadoVentaDTO registrada(int indice, String ventaId, BigDecimal total) {
+        ResultadoVentaDTO r = new ResultadoVentaDTO();
+        r.indice = indice;
+        r.registrada = true;
+        r.ventaId = ventaId;
+        r.total = total;
+        return r;
+    }
+
+    public static ResultadoVentaDTO rechazada(int indice, String error) {
+        ResultadoVentaDTO r = new ResultadoVentaDTO();
+        r.indice = indice;
+        r.error = error;
+        return r;
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public boolean isRegistrada() {
+        return registrada;
+    }
+
+    public void setRegistrada(boolean registrada) {
+        this.registrada = registrada;
+    }
+
+    public String getVentaId() {
+        return ventaId;
+    }
+
+    public void setVentaId(String ventaId) {
+        this.ventaId = ventaId;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
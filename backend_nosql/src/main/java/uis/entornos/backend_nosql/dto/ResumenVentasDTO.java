@@ -0,0 +1,54 @@
+package uis.entornos.backend_nosql.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Totales de ventas de un periodo (p. ej. "2025-10" para un mes),
+ * armado a partir de los resúmenes diarios.
+ */
+public class ResumenVentasDTO {
+
+    private String periodo;
+    private long cantidadVentas;
+    private long unidades;
+    private BigDecimal total = BigDecimal.ZERO;
+
+    public ResumenVentasDTO() {
+    }
+
+    public ResumenVentasDTO(String periodo) {
+        this.periodo = periodo;
+    }
+
+    public String getPeriodo() {
+        return periodo;
+    }
+
+    public void setPeriodo(String periodo) {
+        this.periodo = periodo;
+    }
+
+    public long getCantidadVentas() {
+        return cantidadVentas;
+    }
+
+    public void setCantidadVentas(long cantidadVentas) {
+        this.cantidadVentas = cantidadVentas;
+    }
+
+    public long getUnidades() {
+        return unidades;
+    }
+
+    public void setUnidades(long unidades) {
+        this.unidades = unidades;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+}
@@ -1,5 +1,6 @@
 package uis.entornos.backend_nosql.dto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -12,6 +13,8 @@ public class VentaDTO {
     private String empleadoId;
     private String sucursalId;
     private List<Item> items;
+    // Opcional y solo en /batch: momento de la venta en la caja (ventas sincronizadas sin conexión)
+    private LocalDateTime fecha;
 
     public String getClienteId() {
         return clienteId;
@@ -45,6 +48,14 @@ public class VentaDTO {
         this.items = items;
     }
 
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDateTime fecha) {
+        this.fecha = fecha;
+    }
+
     /**
      * Subclase interna que representa cada producto dentro de una venta.
      */
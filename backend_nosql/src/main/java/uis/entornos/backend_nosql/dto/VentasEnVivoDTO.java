@@ -0,0 +1,59 @@
+package uis.entornos.backend_nosql.dto;
+
+import java.util.Map;
+
+/**
+ * Foto de los contadores de ventas del día que se envía por SSE.
+ * Los montos van en centavos para no perder precisión.
+ */
+public class VentasEnVivoDTO {
+
+    private String dia;
+    private long tickets;
+    private long totalCentavos;
+    private Map<String, Sucursal> sucursales;
+
+    public VentasEnVivoDTO(String dia, long tickets, long totalCentavos, Map<String, Sucursal> sucursales) {
+        this.dia = dia;
+        this.tickets = tickets;
+        this.totalCentavos = totalCentavos;
+        this.sucursales = sucursales;
+    }
+
+    public String getDia() {
+        return dia;
+    }
+
+    public long getTickets() {
+        return tickets;
+    }
+
+    public long getTotalCentavos() {
+        return totalCentavos;
+    }
+
+    public Map<String, Sucursal> getSucursales() {
+        return sucursales;
+    }
+
+    /**
+     * Contadores de una sucursal.
+     */
+    public static class Sucursal {
+        private long tickets;
+        private long totalCentavos;
+
+        public Sucursal(long tickets, long totalCentavos) {
+            this.tickets = tickets;
+            this.totalCentavos = totalCentavos;
+        }
+
+        public long getTickets() {
+            return tickets;
+        }
+
+        public long getTotalCentavos() {
+            return totalCentavos;
+        }
+    }
+}
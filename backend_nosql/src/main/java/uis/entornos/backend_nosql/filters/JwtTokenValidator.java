@@ -33,8 +33,9 @@ public class JwtTokenValidator extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7).trim();
 
-            if (jwtUtils.validateToken(token)) {
-                String username = jwtUtils.getUsernameFromToken(token);
+            // Una sola verificación por petición (o un acierto en la caché de tokens)
+            jwtUtils.parseToken(token).ifPresent(claims -> {
+                String username = claims.getSubject();
 
                 // ⚙️ Configurar el contexto de seguridad
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(username,
@@ -44,7 +45,7 @@ public class JwtTokenValidator extends OncePerRequestFilter {
                         new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
+            });
         }
 
         filterChain.doFilter(request, response);
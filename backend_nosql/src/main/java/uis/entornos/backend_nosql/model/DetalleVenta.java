@@ -2,6 +2,8 @@ package uis.entornos.backend_nosql.model;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import java.math.BigDecimal;
 
@@ -18,6 +20,7 @@ public class DetalleVenta {
     private Producto producto; // referencia al producto
 
     private Integer cantidad;
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal subtotal;
 
     public DetalleVenta() {
@@ -1,12 +1,18 @@
 package uis.entornos.backend_nosql.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.math.BigDecimal;
 
 @Document(collection = "empleados") // equivale a una tabla en SQL
+// Empleados paginados de una sucursal (orden por nombre y _id, ver PaginadorKeyset)
+@CompoundIndex(name = "sucursal_nombre_id_idx", def = "{ 'sucursal': 1, 'nombre': 1, '_id': 1 }")
 @JsonIgnoreProperties({ "sucursal" })
 public class Empleado {
 
@@ -14,10 +20,14 @@ public class Empleado {
     private String id; // Mongo usa String (ObjectId) en lugar de Long
 
     private String nombre;
+    // Únicos: el login busca por cualquiera de los dos (índices en IndicesEmpleadoService)
     private String usuario;
     private String cargo;
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal salario;
     private String email;
+    // Hash de la contraseña ({bcrypt}...); nunca se devuelve en las respuestas
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     private Role role;
 
@@ -31,10 +41,10 @@ public class Empleado {
     public Empleado(String nombre, String usuario, String cargo, BigDecimal salario, String email, String password,
             Role role, Sucursal sucursal) {
         this.nombre = nombre;
-        this.usuario = usuario;
+        this.usuario = sinBlancos(usuario);
         this.cargo = cargo;
         this.salario = salario;
-        this.email = email;
+        this.email = sinBlancos(email);
         this.password = password;
         this.role = role;
         this.sucursal = sucursal;
@@ -62,7 +72,7 @@ public class Empleado {
     }
 
     public void setUsuario(String usuario) {
-        this.usuario = usuario;
+        this.usuario = sinBlancos(usuario);
     }
 
     public String getCargo() {
@@ -86,7 +96,7 @@ public class Empleado {
     }
 
     public void setEmail(String email) {
-        this.email = email;
+        this.email = sinBlancos(email);
     }
 
     public String getPassword() {
@@ -112,4 +122,9 @@ public class Empleado {
     public void setSucursal(Sucursal sucursal) {
         this.sucursal = sucursal;
     }
+
+    // Un usuario o email en blanco se guarda como ausente: no cuenta para los índices únicos
+    private static String sinBlancos(String valor) {
+        return valor == null || valor.isBlank() ? null : valor;
+    }
 }
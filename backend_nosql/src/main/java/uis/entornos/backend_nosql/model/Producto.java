@@ -1,18 +1,28 @@
 package uis.entornos.backend_nosql.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 import org.springframework.data.mongodb.core.mapping.DBRef;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.math.BigDecimal;
 
 @Document(collection = "productos") // nombre de la colección en Mongo
+// Catálogo y productos paginados de una sucursal (igualdad por sucursal, orden por nombre y _id)
+@CompoundIndex(name = "sucursal_nombre_id_idx", def = "{ 'sucursal': 1, 'nombre': 1, '_id': 1 }")
+// Cambios de una sucursal desde un número de secuencia (/api/productos/changes?sucursalId=)
+@CompoundIndex(name = "sucursal_cambio_idx", def = "{ 'sucursal': 1, 'cambio': 1 }")
 public class Producto {
 
     @Id
     private String id; // Mongo usa String/ObjectId
 
     private String nombre;
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal precio;
     private Integer stock;
 
@@ -20,6 +30,15 @@ public class Producto {
     @DBRef
     private Sucursal sucursal;
 
+    // Último lote de reservas de inventario aplicado a este producto (ver InventarioService)
+    @JsonIgnore
+    private Long ultimoLoteInventario;
+
+    // Secuencia del último cambio del producto (ver SecuenciaCambios)
+    @Indexed
+    @JsonIgnore
+    private Long cambio;
+
     public Producto() {
     }
 
@@ -69,4 +88,20 @@ public class Producto {
     public void setSucursal(Sucursal sucursal) {
         this.sucursal = sucursal;
     }
+
+    public Long getUltimoLoteInventario() {
+        return ultimoLoteInventario;
+    }
+
+    public void setUltimoLoteInventario(Long ultimoLoteInventario) {
+        this.ultimoLoteInventario = ultimoLoteInventario;
+    }
+
+    public Long getCambio() {
+        return cambio;
+    }
+
+    public void setCambio(Long cambio) {
+        this.cambio = cambio;
+    }
 }
@@ -0,0 +1,80 @@
+package uis.entornos.backend_nosql.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lápida de un producto que dejó de existir para una sucursal (eliminado o movido
+ * a otra), para que /api/productos/changes lo informe a las cajas. Se purgan pasados
+ * {@code productos.cambios.retencion-dias}.
+ */
+@Document(collection = "productos_eliminados")
+@CompoundIndex(name = "sucursal_cambio_idx", def = "{ 'sucursalId': 1, 'cambio': 1 }")
+public class ProductoEliminado {
+
+    @Id
+    private String id;
+
+    private String productoId;
+    private String sucursalId;
+
+    @Indexed
+    private long cambio;
+
+    @Indexed
+    private LocalDateTime fecha;
+
+    public ProductoEliminado() {
+    }
+
+    public ProductoEliminado(String productoId, String sucursalId, long cambio, LocalDateTime fecha) {
+        this.productoId = productoId;
+        this.sucursalId = sucursalId;
+        this.cambio = cambio;
+        this.fecha = fecha;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getProductoId() {
+        return productoId;
+    }
+
+    public void setProductoId(String productoId) {
+        this.productoId = productoId;
+    }
+
+    public String getSucursalId() {
+        return sucursalId;
+    }
+
+    public void setSucursalId(String sucursalId) {
+        this.sucursalId = sucursalId;
+    }
+
+    public long getCambio() {
+        return cambio;
+    }
+
+    public void setCambio(long cambio) {
+        this.cambio = cambio;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDateTime fecha) {
+        this.fecha = fecha;
+    }
+}
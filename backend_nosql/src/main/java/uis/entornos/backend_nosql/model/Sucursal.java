@@ -2,13 +2,10 @@ package uis.entornos.backend_nosql.model;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.mapping.DBRef;
-import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import java.util.List;
 
+// Los empleados y productos de la sucursal se consultan por su referencia a ella
+// (/api/sucursales/{id}/productos, /api/sucursales/conteos): leer una sucursal es leer un solo documento
 @Document(collection = "sucursales")
-@JsonIgnoreProperties({ "empleados", "productos" })
 public class Sucursal {
 
     @Id
@@ -18,14 +15,6 @@ public class Sucursal {
     private String direccion;
     private String telefono;
 
-    @DBRef
-    @JsonIgnore
-    private List<Empleado> empleados;
-
-    @DBRef
-    @JsonIgnore
-    private List<Producto> productos;
-
     public Sucursal() {
     }
 
@@ -66,20 +55,4 @@ public class Sucursal {
     public void setTelefono(String telefono) {
         this.telefono = telefono;
     }
-
-    public List<Empleado> getEmpleados() {
-        return empleados;
-    }
-
-    public void setEmpleados(List<Empleado> empleados) {
-        this.empleados = empleados;
-    }
-
-    public List<Producto> getProductos() {
-        return productos;
-    }
-
-    public void setProductos(List<Producto> productos) {
-        this.productos = productos;
-    }
 }
@@ -1,19 +1,30 @@
 package uis.entornos.backend_nosql.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 import org.springframework.data.mongodb.core.mapping.DBRef;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Document(collection = "ventas")
+// Índice para /api/ventas/filtrar: igualdad por sucursal + rango por fecha
+@CompoundIndex(name = "sucursal_fecha_idx", def = "{ 'sucursal': 1, 'fecha': 1 }")
 public class Venta {
 
     @Id
     private String id;
 
+    @Indexed
     private LocalDateTime fecha = LocalDateTime.now();
+    // Decimal128 para sumar en Mongo con resultado exacto (antes quedaba como String;
+    // los documentos viejos se convierten con MigracionMontosService)
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal total;
 
     @DBRef
@@ -28,6 +39,16 @@ public class Venta {
     
     private List<DetalleVenta> detalles;
 
+    // Reserva de inventario en memoria: true mientras el descuento de stock de esta
+    // venta no se haya volcado a "productos" (se borra al volcarlo)
+    @Indexed(sparse = true)
+    @JsonIgnore
+    private Boolean inventarioPendiente;
+
+    // Lote de volcado al que se asignó la venta (para recuperar sin aplicar dos veces)
+    @JsonIgnore
+    private Long loteInventario;
+
     public Venta() {
     }
 
@@ -96,4 +117,20 @@ public class Venta {
     public void setDetalles(List<DetalleVenta> detalles) {
         this.detalles = detalles;
     }
+
+    public Boolean getInventarioPendiente() {
+        return inventarioPendiente;
+    }
+
+    public void setInventarioPendiente(Boolean inventarioPendiente) {
+        this.inventarioPendiente = inventarioPendiente;
+    }
+
+    public Long getLoteInventario() {
+        return loteInventario;
+    }
+
+    public void setLoteInventario(Long loteInventario) {
+        this.loteInventario = loteInventario;
+    }
 }
@@ -0,0 +1,125 @@
+package uis.entornos.backend_nosql.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resumen materializado de ventas por (día, sucursal).
+ * Se actualiza con $inc al registrar cada venta y se puede reconstruir
+ * desde "ventas" (ver VentaDiariaService).
+ */
+@Document(collection = "ventas_diarias")
+@CompoundIndex(name = "dia_sucursal_idx", def = "{ 'dia': 1, 'sucursalId': 1 }")
+public class VentaDiaria {
+
+    @Id
+    private String id; // "<dia>|<sucursalId>"
+
+    private LocalDate dia;
+    private String sucursalId;
+    private long cantidadVentas;
+    private long unidades;
+
+    // Decimal128 para poder acumular con $inc y sumar en Mongo
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal total = BigDecimal.ZERO;
+
+    // empleadoId -> totales del empleado ese día
+    private Map<String, TotalEmpleado> empleados = new HashMap<>();
+
+    public VentaDiaria() {
+    }
+
+    public static String idPara(LocalDate dia, String sucursalId) {
+        return dia + "|" + sucursalId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public LocalDate getDia() {
+        return dia;
+    }
+
+    public void setDia(LocalDate dia) {
+        this.dia = dia;
+    }
+
+    public String getSucursalId() {
+        return sucursalId;
+    }
+
+    public void setSucursalId(String sucursalId) {
+        this.sucursalId = sucursalId;
+    }
+
+    public long getCantidadVentas() {
+        return cantidadVentas;
+    }
+
+    public void setCantidadVentas(long cantidadVentas) {
+        this.cantidadVentas = cantidadVentas;
+    }
+
+    public long getUnidades() {
+        return unidades;
+    }
+
+    public void setUnidades(long unidades) {
+        this.unidades = unidades;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public Map<String, TotalEmpleado> getEmpleados() {
+        return empleados;
+    }
+
+    public void setEmpleados(Map<String, TotalEmpleado> empleados) {
+        this.empleados = empleados;
+    }
+
+    /**
+     * Totales de un empleado dentro del resumen diario.
+     */
+    public static class TotalEmpleado {
+        private long cantidadVentas;
+
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal total = BigDecimal.ZERO;
+
+        public long getCantidadVentas() {
+            return cantidadVentas;
+        }
+
+        public void setCantidadVentas(long cantidadVentas) {
+            this.cantidadVentas = cantidadVentas;
+        }
+
+        public BigDecimal getTotal() {
+            return total;
+        }
+
+        public void setTotal(BigDecimal total) {
+            this.total = total;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package uis.entornos.backend_nosql.repository;
+
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * DbRefResolver que, dentro de {@link #conPrecargados}, responde las
+ * referencias desde documentos ya traídos en bloque (un $in por colección)
+ * en lugar de ir a Mongo por cada DBRef. Fuera de ese bloque se comporta
+ * igual que el resolver por defecto.
+ */
+public class BatchDbRefResolver extends DefaultDbRefResolver {
+
+    // colección -> (_id -> documento); un valor null indica que la referencia no existe
+    private final ThreadLocal<Map<String, Map<Object, Document>>> precargados = new ThreadLocal<>();
+
+    public BatchDbRefResolver(MongoDatabaseFactory mongoDbFactory) {
+        super(mongoDbFactory);
+    }
+
+    /**
+     * Ejecuta la conversión con los documentos precargados disponibles.
+     */
+    public <T> T conPrecargados(Map<String, Map<Object, Document>> documentos, Supplier<T> conversion) {
+        Map<String, Map<Object, Document>> anterior = precargados.get();
+        precargados.set(documentos);
+        try {
+            return conversion.get();
+        } finally {
+            if (anterior != null) {
+                precargados.set(anterior);
+            } else {
+                precargados.remove();
+            }
+        }
+    }
+
+    @Override
+    public Document fetch(DBRef dbRef) {
+        Map<Object, Document> coleccion = coleccionPrecargada(dbRef);
+        if (coleccion != null && coleccion.containsKey(dbRef.getId())) {
+            return coleccion.get(dbRef.getId());
+        }
+        return super.fetch(dbRef);
+    }
+
+    @Override
+    public List<Document> bulkFetch(List<DBRef> refs) {
+        List<Document> resultado = new ArrayList<>(refs.size());
+        for (DBRef ref : refs) {
+            Map<Object, Document> coleccion = coleccionPrecargada(ref);
+            if (coleccion == null || !coleccion.containsKey(ref.getId())) {
+                // Alguna no está precargada: se resuelve la lista completa como siempre
+                return super.bulkFetch(refs);
+            }
+            Document doc = coleccion.get(ref.getId());
+            if (doc != null) {
+                resultado.add(doc);
+            }
+        }
+        return resultado;
+    }
+
+    private Map<Object, Document> coleccionPrecargada(DBRef ref) {
+        Map<String, Map<Object, Document>> docs = precargados.get();
+        return docs != null ? docs.getOrDefault(ref.getCollectionName(), null) : null;
+    }
+}
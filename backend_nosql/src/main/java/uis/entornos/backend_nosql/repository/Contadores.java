@@ -0,0 +1,136 @@
+package uis.entornos.backend_nosql.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contadores en la colección "contadores" (un documento por contador, valor en "seq").
+ * El $inc es atómico en Mongo, así que los números no se repiten aunque haya varias
+ * instancias, y no dependen del reloj de la máquina.
+ */
+@Component
+public class Contadores {
+
+    private static final String COLECCION = "contadores";
+    private static final String VALOR = "seq";
+    private static final String PENDIENTES = "pendientes";
+
+    private final MongoTemplate mongoTemplate;
+
+    public Contadores(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Suma cantidad al contador (lo crea en 0 si no existe) y devuelve el valor nuevo
+    public long incrementar(String contador, long cantidad) {
+        Document d = coleccion().findOneAndUpdate(Filters.eq("_id", contador), Updates.inc(VALOR, cantidad),
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        return d.get(VALOR, Number.class).longValue();
+    }
+
+    /**
+     * Como {@link #incrementar}, pero en la misma escritura anota una reserva pendiente en el
+     * documento del contador (se quita con {@link #quitarPendientes}). Así cualquier instancia
+     * que lea el contador ve también las reservas en curso de todas las demás.
+     */
+    public long incrementarPendiente(String contador, long cantidad, Pendiente pendiente) {
+        Document d = coleccion().findOneAndUpdate(Filters.eq("_id", contador),
+                Updates.combine(Updates.inc(VALOR, cantidad), Updates.push(PENDIENTES, new Document()
+                        .append("reserva", pendiente.reserva())
+                        .append("piso", pendiente.piso())
+                        .append("anotada", pendiente.anotada()))),
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        return d.get(VALOR, Number.class).longValue();
+    }
+
+    public void quitarPendientes(String contador, Collection<String> reservas) {
+        coleccion().updateOne(Filters.eq("_id", contador),
+                Updates.pull(PENDIENTES, new Document("reserva", new Document("$in", List.copyOf(reservas)))));
+    }
+
+    // Valor del contador y sus reservas pendientes, leídos juntos (un solo documento)
+    public ConPendientes leerConPendientes(String contador) {
+        Document d = coleccion().find(Filters.eq("_id", contador)).first();
+        if (d == null) {
+            return new ConPendientes(0, List.of());
+        }
+        List<Pendiente> pendientes = new ArrayList<>();
+        for (Document p : d.getList(PENDIENTES, Document.class, List.of())) {
+            pendientes.add(new Pendiente(p.getString("reserva"), p.get("piso", Number.class).longValue(),
+                    p.get("anotada", Number.class).longValue()));
+        }
+        return new ConPendientes(d.get(VALOR) instanceof Number n ? n.longValue() : 0L, pendientes);
+    }
+
+    // Suma 1 al contador y lleva otro campo al menos hasta valor ($max), en una sola escritura
+    public void incrementarYSubirA(String contador, String campo, long valor) {
+        coleccion().updateOne(Filters.eq("_id", contador),
+                Updates.combine(Updates.inc(VALOR, 1L), Updates.max(campo, valor)),
+                new UpdateOptions().upsert(true));
+    }
+
+    public long leer(String contador) {
+        return leer(contador, VALOR);
+    }
+
+    // Otros campos numéricos del mismo documento (0 si no existen)
+    public long leer(String contador, String campo) {
+        Document d = coleccion().find(Filters.eq("_id", contador)).first();
+        return d != null && d.get(campo) instanceof Number n ? n.longValue() : 0L;
+    }
+
+    // Varios contadores en una sola consulta (0 los que no existen)
+    public Map<String, Long> leerVarios(Collection<String> contadores) {
+        return leerVarios(contadores, VALOR);
+    }
+
+    public Map<String, Long> leerVarios(Collection<String> contadores, String campo) {
+        Map<String, Long> valores = new HashMap<>();
+        for (String contador : contadores) {
+            valores.put(contador, 0L);
+        }
+        for (Document d : coleccion().find(Filters.in("_id", contadores))) {
+            if (d.get(campo) instanceof Number n) {
+                valores.put(d.getString("_id"), n.longValue());
+            }
+        }
+        return valores;
+    }
+
+    // Lleva el contador al menos hasta valor ($max: nunca lo baja)
+    public void subirA(String contador, long valor) {
+        subirA(contador, VALOR, valor);
+    }
+
+    public void subirA(String contador, String campo, long valor) {
+        coleccion().updateOne(Filters.eq("_id", contador), Updates.max(campo, valor),
+                new UpdateOptions().upsert(true));
+    }
+
+    private MongoCollection<Document> coleccion() {
+        return mongoTemplate.getCollection(COLECCION);
+    }
+
+    /**
+     * Reserva de números en curso: todos sus números son mayores que {@code piso}.
+     * {@code anotada} es el instante (ms) en que se hizo.
+     */
+    public record Pendiente(String reserva, long piso, long anotada) {
+    }
+
+    public record ConPendientes(long valor, List<Pendiente> pendientes) {
+    }
+}
@@ -0,0 +1,142 @@
+package uis.entornos.backend_nosql.repository;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lectura de documentos con @DBRef resolviendo las referencias en bloque.
+ *
+ * Primero se leen los documentos crudos, luego se juntan los ids referenciados
+ * y se trae cada colección con un único $in (repitiendo por nivel de anidamiento,
+ * p. ej. venta -> empleado -> sucursal). La conversión a entidades se hace con
+ * esos documentos precargados, así que el número de consultas no depende de
+ * cuántos documentos se lean.
+ */
+@Component
+public class DbRefBatchLoader {
+
+    private final MongoTemplate mongoTemplate;
+    private final BatchDbRefResolver resolver;
+    private final QueryMapper queryMapper;
+    private final ReferenciasMapeadas referencias;
+
+    public DbRefBatchLoader(MongoTemplate mongoTemplate, BatchDbRefResolver resolver) {
+        this.mongoTemplate = mongoTemplate;
+        this.resolver = resolver;
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        this.referencias = new ReferenciasMapeadas(mongoTemplate.getConverter().getMappingContext());
+    }
+
+    public <T> List<T> find(Query query, Class<T> tipo) {
+        List<Document> docs = new ArrayList<>();
+        crudos(query, tipo).into(docs);
+        return convertir(docs, tipo);
+    }
+
+    /**
+     * Igual que {@link #find} pero sobre un cursor: se convierte de a {@code lote}
+     * documentos. El Stream debe cerrarse para liberar el cursor.
+     */
+    public <T> Stream<T> stream(Query query, Class<T> tipo, int lote) {
+        MongoCursor<Document> cursor = crudos(query, tipo).batchSize(lote).cursor();
+
+        Iterator<T> porLotes = new Iterator<>() {
+            private Iterator<T> actual = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!actual.hasNext() && cursor.hasNext()) {
+                    List<Document> bloque = new ArrayList<>(lote);
+                    while (bloque.size() < lote && cursor.hasNext()) {
+                        bloque.add(cursor.next());
+                    }
+                    actual = convertir(bloque, tipo).iterator();
+                }
+                return actual.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return actual.next();
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(porLotes, Spliterator.ORDERED), false)
+                .onClose(cursor::close);
+    }
+
+    private FindIterable<Document> crudos(Query query, Class<?> tipo) {
+        MongoPersistentEntity<?> entidad = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(tipo);
+
+        FindIterable<Document> it = mongoTemplate.getCollection(mongoTemplate.getCollectionName(tipo))
+                .find(queryMapper.getMappedObject(query.getQueryObject(), entidad))
+                .sort(queryMapper.getMappedSort(query.getSortObject(), entidad));
+        if (query.getSkip() > 0) {
+            it = it.skip((int) query.getSkip());
+        }
+        if (query.isLimited()) {
+            it = it.limit(query.getLimit());
+        }
+        return it;
+    }
+
+    private <T> List<T> convertir(List<Document> docs, Class<T> tipo) {
+        Map<String, Map<Object, Document>> precargados = new HashMap<>();
+        precargar(referencias.entidad(tipo), docs, precargados);
+
+        MongoConverter converter = mongoTemplate.getConverter();
+        return resolver.conPrecargados(precargados,
+                () -> docs.stream().map(d -> converter.read(tipo, d)).toList());
+    }
+
+    // Un $in por colección y por nivel hasta que no queden referencias sin traer
+    private void precargar(MongoPersistentEntity<?> entidad, Collection<Document> docs,
+            Map<String, Map<Object, Document>> precargados) {
+        Map<String, Set<Object>> pendientes = new HashMap<>();
+        referencias.recolectar(entidad, docs, precargados, pendientes);
+
+        while (!pendientes.isEmpty()) {
+            Map<String, List<Document>> nuevos = new HashMap<>();
+            for (Map.Entry<String, Set<Object>> e : pendientes.entrySet()) {
+                Map<Object, Document> coleccion = precargados.computeIfAbsent(e.getKey(), k -> new HashMap<>());
+                List<Document> traidos = nuevos.computeIfAbsent(e.getKey(), k -> new ArrayList<>());
+                for (Document d : mongoTemplate.getCollection(e.getKey()).find(Filters.in("_id", e.getValue()))) {
+                    coleccion.put(d.get("_id"), d);
+                    traidos.add(d);
+                }
+                // Las referencias colgantes quedan marcadas para no volver a buscarlas
+                e.getValue().forEach(id -> coleccion.putIfAbsent(id, null));
+            }
+            // Se recolecta después de traer todo el nivel, para no pedir dos veces lo ya traído
+            Map<String, Set<Object>> siguientes = new HashMap<>();
+            nuevos.forEach((coleccion, traidos) -> referencias.recolectar(coleccion, traidos, precargados, siguientes));
+            pendientes = siguientes;
+        }
+    }
+}
@@ -1,11 +1,10 @@
 package uis.entornos.backend_nosql.repository;
 
 import uis.entornos.backend_nosql.model.Empleado;
-import java.util.Optional;
+import java.util.List;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface EmpleadoRepository extends MongoRepository<Empleado, String> {
-    Optional<Empleado> findByEmailAndPassword(String email, String password);
-
-    Optional<Empleado> findByUsuarioAndPassword(String usuario, String password);
+public interface EmpleadoRepository extends MongoRepository<Empleado, String>, EmpleadoRepositoryCustom {
+    // Login: una sola consulta { $or: [ { email }, { usuario } ] } sobre índices únicos
+    List<Empleado> findByEmailOrUsuario(String email, String usuario);
 }
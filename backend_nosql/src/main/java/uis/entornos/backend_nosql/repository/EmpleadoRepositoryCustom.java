@@ -0,0 +1,25 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.Empleado;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface EmpleadoRepositoryCustom {
+
+    /**
+     * Equivalente a findAllById pero con las sucursales resueltas en bloque.
+     */
+    List<Empleado> listarPorIds(Collection<String> ids);
+
+    /**
+     * Empleados de una sucursal por páginas de cursor en orden de nombre
+     * (índice sucursal + nombre + _id).
+     */
+    Pagina<Empleado> paginarPorSucursal(String sucursalId, String after, int limite);
+
+    /**
+     * Cantidad de empleados por sucursal (sucursalId -> cantidad), con un solo $group.
+     */
+    Map<String, Long> contarPorSucursal();
+}
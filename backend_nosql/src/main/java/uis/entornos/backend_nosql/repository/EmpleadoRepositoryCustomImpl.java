@@ -0,0 +1,43 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.Empleado;
+import uis.entornos.backend_nosql.model.Sucursal;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class EmpleadoRepositoryCustomImpl implements EmpleadoRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final DbRefBatchLoader batchLoader;
+    private final PaginadorKeyset paginador;
+
+    public EmpleadoRepositoryCustomImpl(MongoTemplate mongoTemplate, DbRefBatchLoader batchLoader,
+            PaginadorKeyset paginador) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchLoader = batchLoader;
+        this.paginador = paginador;
+    }
+
+    @Override
+    public List<Empleado> listarPorIds(Collection<String> ids) {
+        return batchLoader.find(Query.query(Criteria.where("id").in(ids)), Empleado.class);
+    }
+
+    @Override
+    public Pagina<Empleado> paginarPorSucursal(String sucursalId, String after, int limite) {
+        Sucursal ref = new Sucursal();
+        ref.setId(sucursalId);
+        return paginador.pagina(Query.query(Criteria.where("sucursal").is(ref)), Empleado.class, "nombre",
+                Empleado::getNombre, Empleado::getId, after, limite);
+    }
+
+    @Override
+    public Map<String, Long> contarPorSucursal() {
+        return ProductoRepositoryCustomImpl.contarPorReferencia(mongoTemplate, Empleado.class, "sucursal");
+    }
+}
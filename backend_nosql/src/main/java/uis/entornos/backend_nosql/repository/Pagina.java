@@ -0,0 +1,15 @@
+package uis.entornos.backend_nosql.repository;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Una página de un listado por cursor. {@code siguiente} es el cursor (opaco) para
+ * pedir la página que sigue, o null si esta es la última.
+ */
+public record Pagina<T>(List<T> contenido, String siguiente) {
+
+    public <R> Pagina<R> map(Function<? super T, ? extends R> f) {
+        return new Pagina<>(contenido.stream().<R>map(f).toList(), siguiente);
+    }
+}
@@ -0,0 +1,106 @@
+package uis.entornos.backend_nosql.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Paginación por cursor (keyset) sobre _id: cada página es "_id > último visto",
+ * ordenada por _id y con límite, así que cuesta lo mismo la primera que la página
+ * mil (no hay skip) y el orden no cambia aunque se inserten documentos.
+ *
+ * El cursor es el último _id de la página en Base64 URL; el cliente lo trata como opaco.
+ * Para listados ordenados por otro campo (p. ej. nombre) el cursor lleva además el
+ * valor de ese campo y el _id queda como desempate.
+ * Las referencias @DBRef se resuelven en bloque con {@link DbRefBatchLoader}.
+ */
+@Component
+public class PaginadorKeyset {
+
+    public static final int LIMITE_POR_DEFECTO = 500;
+    public static final int LIMITE_MAXIMO = 1000;
+
+    // Separa el _id del valor del campo de orden en el cursor (no aparece en un _id)
+    private static final char SEPARADOR = '\u0000';
+
+    private final DbRefBatchLoader batchLoader;
+
+    public PaginadorKeyset(DbRefBatchLoader batchLoader) {
+        this.batchLoader = batchLoader;
+    }
+
+    /**
+     * @param filtro criterios adicionales (se le agregan el _id, el orden y el límite)
+     * @param after  cursor de la página anterior, o null para la primera
+     */
+    public <T> Pagina<T> pagina(Query filtro, Class<T> tipo, Function<T, String> id, String after, int limite) {
+        int n = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        if (after != null && !after.isBlank()) {
+            filtro.addCriteria(Criteria.where("id").gt(decodificar(after)));
+        }
+        // Se pide uno de más para saber si hay página siguiente sin contar
+        filtro.with(Sort.by("id")).limit(n + 1);
+
+        List<T> leidos = batchLoader.find(filtro, tipo);
+        if (leidos.size() <= n) {
+            return new Pagina<>(leidos, null);
+        }
+        List<T> contenido = leidos.subList(0, n);
+        return new Pagina<>(List.copyOf(contenido), codificar(id.apply(contenido.get(n - 1))));
+    }
+
+    /**
+     * Igual, pero en orden de {@code campo} y luego _id: la página siguiente es
+     * "(campo, _id) > (último valor, último _id)". El filtro más ese orden debería
+     * cubrirlo un índice que termine en { campo: 1, _id: 1 }.
+     *
+     * @param valor valor del campo de orden en cada documento (puede ser null)
+     */
+    public <T> Pagina<T> pagina(Query filtro, Class<T> tipo, String campo, Function<T, String> valor,
+            Function<T, String> id, String after, int limite) {
+        int n = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        if (after != null && !after.isBlank()) {
+            String cursor = decodificar(after);
+            int separador = cursor.indexOf(SEPARADOR);
+            // Sin separador: el último de la página tenía el campo en null (los null van primero)
+            String ultimoId = separador < 0 ? cursor : cursor.substring(0, separador);
+            Criteria mismoValor = separador < 0
+                    ? Criteria.where(campo).is(null).and("id").gt(ultimoId)
+                    : Criteria.where(campo).is(cursor.substring(separador + 1)).and("id").gt(ultimoId);
+            Criteria valorMayor = separador < 0
+                    ? Criteria.where(campo).ne(null)
+                    : Criteria.where(campo).gt(cursor.substring(separador + 1));
+            filtro.addCriteria(new Criteria().orOperator(valorMayor, mismoValor));
+        }
+        filtro.with(Sort.by(campo, "id")).limit(n + 1);
+
+        List<T> leidos = batchLoader.find(filtro, tipo);
+        if (leidos.size() <= n) {
+            return new Pagina<>(leidos, null);
+        }
+        List<T> contenido = leidos.subList(0, n);
+        T ultimo = contenido.get(n - 1);
+        String ultimoValor = valor.apply(ultimo);
+        return new Pagina<>(List.copyOf(contenido), codificar(ultimoValor == null
+                ? id.apply(ultimo)
+                : id.apply(ultimo) + SEPARADOR + ultimoValor));
+    }
+
+    private static String codificar(String texto) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodificar(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+    }
+}
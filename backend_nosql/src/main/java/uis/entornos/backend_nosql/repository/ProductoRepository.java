@@ -5,6 +5,6 @@ import uis.entornos.backend_nosql.model.Sucursal;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.List;
 
-public interface ProductoRepository extends MongoRepository<Producto, String> {
+public interface ProductoRepository extends MongoRepository<Producto, String>, ProductoRepositoryCustom {
     List<Producto> findBySucursal(Sucursal sucursal);
 }
@@ -0,0 +1,80 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.Producto;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface ProductoRepositoryCustom {
+
+    /**
+     * Lista productos (todos si sucursalId es null) con la sucursal
+     * resuelta en bloque en lugar de una consulta por producto.
+     */
+    List<Producto> listarPorSucursal(String sucursalId);
+
+    /**
+     * Igual que {@link #listarPorSucursal} pero por páginas de cursor (ver {@link PaginadorKeyset}).
+     */
+    Pagina<Producto> paginarPorCursor(String sucursalId, String after, int limite);
+
+    /**
+     * Productos (de una sucursal, o todos si es null) cuyo último cambio está en
+     * (desde, hasta], en orden de secuencia (ver {@link SecuenciaCambios}).
+     */
+    List<Producto> listarCambios(String sucursalId, long desde, long hasta, int limite);
+
+    /**
+     * Productos de una sucursal por páginas de cursor en orden de nombre
+     * (índice sucursal + nombre + _id).
+     */
+    Pagina<Producto> paginarPorSucursal(String sucursalId, String after, int limite);
+
+    /**
+     * Cantidad de productos por sucursal (sucursalId -> cantidad), con un solo $group.
+     */
+    Map<String, Long> contarPorSucursal();
+
+    /**
+     * Equivalente a findAllById pero con las sucursales resueltas en bloque.
+     */
+    List<Producto> listarPorIds(Collection<String> ids);
+
+    /**
+     * Descuenta stock (productoId -> cantidad) en un único bulk write con
+     * $inc condicionado a stock >= cantidad. Es todo o nada: si algún
+     * producto no alcanza, lo ya descontado se repone.
+     *
+     * @return el id del primer producto que no pudo descontarse, o vacío si todo se descontó
+     */
+    Optional<String> descontarStock(Map<String, Integer> cantidades);
+
+    /**
+     * Devuelve stock descontado (compensación). Un único bulk write.
+     */
+    void reponerStock(Map<String, Integer> cantidades);
+
+    /**
+     * Lee solo el stock actual (productoId -> stock), sin resolver referencias.
+     */
+    Map<String, Integer> leerStock(Collection<String> ids);
+
+    /**
+     * Vuelca un lote de reservas de inventario: descuenta cada cantidad y marca
+     * el producto con el lote. Un producto que ya tiene ese lote (o uno posterior)
+     * no se toca, así que reintentar el mismo lote es idempotente.
+     */
+    void aplicarLoteInventario(long lote, Map<String, Integer> descuentos);
+
+    /**
+     * Mayor lote de inventario aplicado a algún producto (0 si ninguno).
+     */
+    long ultimoLoteInventario();
+
+    /**
+     * Da una secuencia de cambios nueva a todos los productos de la sucursal, sin tocar
+     * nada más (p. ej. al renombrarla). Bulk writes por tandas; devuelve cuántos se tocaron.
+     */
+    int renumerarPorSucursal(String sucursalId);
+}
@@ -0,0 +1,240 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.model.Sucursal;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class ProductoRepositoryCustomImpl implements ProductoRepositoryCustom {
+
+    // Productos por bulk write al renumerar una sucursal
+    private static final int LOTE_RENUMERAR = 1000;
+    // Números de cambio de los últimos descuentos de stock de cada producto (ver descontarStock)
+    private static final String DESCUENTOS = "descuentosStock";
+    private static final int DESCUENTOS_RECIENTES = 32;
+
+    private final MongoTemplate mongoTemplate;
+    private final DbRefBatchLoader batchLoader;
+    private final PaginadorKeyset paginador;
+    private final SecuenciaCambios secuencia;
+
+    public ProductoRepositoryCustomImpl(MongoTemplate mongoTemplate, DbRefBatchLoader batchLoader,
+            PaginadorKeyset paginador, SecuenciaCambios secuencia) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchLoader = batchLoader;
+        this.paginador = paginador;
+        this.secuencia = secuencia;
+    }
+
+    @Override
+    public List<Producto> listarPorSucursal(String sucursalId) {
+        return batchLoader.find(porSucursal(sucursalId), Producto.class);
+    }
+
+    @Override
+    public Pagina<Producto> paginarPorCursor(String sucursalId, String after, int limite) {
+        return paginador.pagina(porSucursal(sucursalId), Producto.class, Producto::getId, after, limite);
+    }
+
+    @Override
+    public List<Producto> listarCambios(String sucursalId, long desde, long hasta, int limite) {
+        Query query = porSucursal(sucursalId)
+                .addCriteria(Criteria.where("cambio").gt(desde).lte(hasta))
+                .with(Sort.by("cambio"))
+                .limit(limite);
+        return batchLoader.find(query, Producto.class);
+    }
+
+    private static Query porSucursal(String sucursalId) {
+        Query query = new Query();
+        if (sucursalId != null) {
+            Sucursal ref = new Sucursal();
+            ref.setId(sucursalId);
+            query.addCriteria(Criteria.where("sucursal").is(ref));
+        }
+        return query;
+    }
+
+    @Override
+    public Pagina<Producto> paginarPorSucursal(String sucursalId, String after, int limite) {
+        return paginador.pagina(porSucursal(sucursalId), Producto.class, "nombre", Producto::getNombre,
+                Producto::getId, after, limite);
+    }
+
+    @Override
+    public Map<String, Long> contarPorSucursal() {
+        return contarPorReferencia(mongoTemplate, Producto.class, "sucursal");
+    }
+
+    // Agrupa por el DBRef completo: { _id: DBRef, cantidad } -> id referenciado -> cantidad.
+    // También lo usa EmpleadoRepositoryCustomImpl
+    static Map<String, Long> contarPorReferencia(MongoTemplate mongoTemplate, Class<?> tipo, String campo) {
+        Map<String, Long> conteos = new HashMap<>();
+        for (Document d : mongoTemplate.getCollection(mongoTemplate.getCollectionName(tipo)).aggregate(List.of(
+                new Document("$group", new Document("_id", "$" + campo).append("cantidad", new Document("$sum", 1)))))) {
+            if (d.get("_id") instanceof DBRef ref && d.get("cantidad") instanceof Number n) {
+                conteos.put(ref.getId().toString(), n.longValue());
+            }
+        }
+        return conteos;
+    }
+
+    @Override
+    public List<Producto> listarPorIds(Collection<String> ids) {
+        return batchLoader.find(Query.query(Criteria.where("id").in(ids)), Producto.class);
+    }
+
+    @Override
+    public Optional<String> descontarStock(Map<String, Integer> cantidades) {
+        if (cantidades.isEmpty()) {
+            return Optional.empty();
+        }
+        List<String> ids = new ArrayList<>(cantidades.keySet());
+        long primero = secuencia.reservar(ids.size());
+        try {
+            return descontarStock(cantidades, ids, primero);
+        } finally {
+            secuencia.liberar(primero);
+        }
+    }
+
+    private Optional<String> descontarStock(Map<String, Integer> cantidades, List<String> ids, long primero) {
+        // Bulk ordenado: cada $inc solo aplica si stock >= cantidad. El bulk solo informa
+        // cuántos coincidieron, así que cada descuento anota además su número de cambio
+        // (único de esta reserva) en una lista corta del producto
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Producto.class);
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            bulk.updateOne(
+                    Query.query(Criteria.where("id").is(id).and("stock").gte(cantidades.get(id))),
+                    new Update().inc("stock", -cantidades.get(id)).set("cambio", primero + i)
+                            .push(DESCUENTOS).slice(-DESCUENTOS_RECIENTES).each(primero + i));
+        }
+        if (bulk.execute().getMatchedCount() == ids.size()) {
+            return Optional.empty();
+        }
+
+        // Algún producto no alcanzó (o ya no existe): se reponen exactamente los que sí se
+        // descontaron, aunque otra escritura ya les haya cambiado el "cambio"
+        List<Long> numeros = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            numeros.add(primero + i);
+        }
+        Query aplicados = Query.query(Criteria.where("id").in(ids).and(DESCUENTOS).in(numeros));
+        aplicados.fields().include("id");
+        Set<String> descontados = new HashSet<>();
+        for (Producto p : mongoTemplate.find(aplicados, Producto.class)) {
+            descontados.add(p.getId());
+        }
+
+        String fallido = null;
+        Map<String, Integer> aReponer = new LinkedHashMap<>();
+        for (String id : ids) {
+            if (descontados.contains(id)) {
+                aReponer.put(id, cantidades.get(id));
+            } else if (fallido == null) {
+                fallido = id;
+            }
+        }
+        reponerStock(aReponer);
+        return Optional.ofNullable(fallido);
+    }
+
+    @Override
+    public void reponerStock(Map<String, Integer> cantidades) {
+        if (cantidades.isEmpty()) {
+            return;
+        }
+        long primero = secuencia.reservar(cantidades.size());
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Producto.class);
+            long cambio = primero;
+            for (Map.Entry<String, Integer> e : cantidades.entrySet()) {
+                bulk.updateOne(Query.query(Criteria.where("id").is(e.getKey())),
+                        new Update().inc("stock", e.getValue()).set("cambio", cambio++));
+            }
+            bulk.execute();
+        } finally {
+            secuencia.liberar(primero);
+        }
+    }
+
+    @Override
+    public Map<String, Integer> leerStock(Collection<String> ids) {
+        Query query = Query.query(Criteria.where("id").in(ids));
+        query.fields().include("stock");
+        Map<String, Integer> stock = new HashMap<>();
+        for (Producto p : mongoTemplate.find(query, Producto.class)) {
+            stock.put(p.getId(), p.getStock() != null ? p.getStock() : 0);
+        }
+        return stock;
+    }
+
+    @Override
+    public void aplicarLoteInventario(long lote, Map<String, Integer> descuentos) {
+        if (descuentos.isEmpty()) {
+            return;
+        }
+        long primero = secuencia.reservar(descuentos.size());
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Producto.class);
+            long cambio = primero;
+            for (Map.Entry<String, Integer> e : descuentos.entrySet()) {
+                bulk.updateOne(
+                        Query.query(Criteria.where("id").is(e.getKey()).and("ultimoLoteInventario").not().gte(lote)),
+                        new Update().inc("stock", -e.getValue()).set("ultimoLoteInventario", lote).set("cambio", cambio++));
+            }
+            bulk.execute();
+        } finally {
+            secuencia.liberar(primero);
+        }
+    }
+
+    @Override
+    public long ultimoLoteInventario() {
+        Query query = new Query(Criteria.where("ultimoLoteInventario").ne(null))
+                .with(Sort.by(Sort.Direction.DESC, "ultimoLoteInventario"))
+                .limit(1);
+        query.fields().include("ultimoLoteInventario");
+        Producto p = mongoTemplate.findOne(query, Producto.class);
+        return p != null ? p.getUltimoLoteInventario() : 0L;
+    }
+
+    @Override
+    public int renumerarPorSucursal(String sucursalId) {
+        Query query = porSucursal(sucursalId);
+        query.fields().include("id");
+        List<String> ids = mongoTemplate.find(query, Producto.class).stream().map(Producto::getId).toList();
+        for (int desde = 0; desde < ids.size(); desde += LOTE_RENUMERAR) {
+            List<String> tanda = ids.subList(desde, Math.min(desde + LOTE_RENUMERAR, ids.size()));
+            long primero = secuencia.reservar(tanda.size());
+            try {
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Producto.class);
+                long cambio = primero;
+                for (String id : tanda) {
+                    bulk.updateOne(Query.query(Criteria.where("id").is(id)), Update.update("cambio", cambio++));
+                }
+                bulk.execute();
+            } finally {
+                secuencia.liberar(primero);
+            }
+        }
+        return ids.size();
+    }
+}
@@ -0,0 +1,113 @@
+package uis.entornos.backend_nosql.repository;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.reactivestreams.client.FindPublisher;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Versión reactiva de {@link DbRefBatchLoader}: el driver reactivo no resuelve @DBRef,
+ * así que los documentos se leen crudos de a {@code lote}, las referencias de cada lote
+ * se traen con un $in por colección y nivel (sin bloquear) y recién entonces se
+ * convierten, con todas las referencias ya precargadas.
+ *
+ * Se pide un lote a la vez: un cliente lento frena la lectura del cursor en lugar
+ * de acumular el resultado completo en memoria.
+ */
+@Component
+public class ReactiveDbRefBatchLoader {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final BatchDbRefResolver resolver;
+    private final QueryMapper queryMapper;
+    private final ReferenciasMapeadas referencias;
+
+    public ReactiveDbRefBatchLoader(ReactiveMongoTemplate reactiveMongoTemplate, BatchDbRefResolver resolver) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.resolver = resolver;
+        this.queryMapper = new QueryMapper(reactiveMongoTemplate.getConverter());
+        this.referencias = new ReferenciasMapeadas(reactiveMongoTemplate.getConverter().getMappingContext());
+    }
+
+    public <T> Flux<T> find(Query query, Class<T> tipo, int lote) {
+        return crudos(query, tipo, lote)
+                .buffer(lote)
+                .concatMap(bloque -> precargar(referencias.entidad(tipo), bloque)
+                        .flatMapIterable(precargados -> convertir(bloque, precargados, tipo)), 1);
+    }
+
+    private Flux<Document> crudos(Query query, Class<?> tipo, int lote) {
+        MongoPersistentEntity<?> entidad = reactiveMongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(tipo);
+
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(tipo))
+                .flatMapMany(coleccion -> {
+                    FindPublisher<Document> it = coleccion
+                            .find(queryMapper.getMappedObject(query.getQueryObject(), entidad))
+                            .sort(queryMapper.getMappedSort(query.getSortObject(), entidad))
+                            .batchSize(lote);
+                    if (query.getSkip() > 0) {
+                        it = it.skip((int) query.getSkip());
+                    }
+                    if (query.isLimited()) {
+                        it = it.limit(query.getLimit());
+                    }
+                    return it;
+                });
+    }
+
+    private <T> List<T> convertir(List<Document> docs, Map<String, Map<Object, Document>> precargados, Class<T> tipo) {
+        // Todas las referencias están precargadas: la conversión no va a Mongo
+        MongoConverter converter = reactiveMongoTemplate.getConverter();
+        return resolver.conPrecargados(precargados,
+                () -> docs.stream().map(d -> converter.read(tipo, d)).toList());
+    }
+
+    private Mono<Map<String, Map<Object, Document>>> precargar(MongoPersistentEntity<?> entidad, List<Document> docs) {
+        Map<String, Map<Object, Document>> precargados = new HashMap<>();
+        Map<String, Set<Object>> pendientes = new HashMap<>();
+        referencias.recolectar(entidad, docs, precargados, pendientes);
+        return traerNivel(pendientes, precargados).thenReturn(precargados);
+    }
+
+    // Un $in por colección; los documentos traídos pueden tener referencias del siguiente nivel
+    private Mono<Void> traerNivel(Map<String, Set<Object>> pendientes, Map<String, Map<Object, Document>> precargados) {
+        if (pendientes.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(pendientes.entrySet())
+                .concatMap(e -> reactiveMongoTemplate.getCollection(e.getKey())
+                        .flatMapMany(c -> c.find(Filters.in("_id", e.getValue())))
+                        .collectList()
+                        .map(encontrados -> Map.entry(e, encontrados)))
+                .collectList()
+                .flatMap(resultados -> {
+                    Map<String, Set<Object>> siguientes = new HashMap<>();
+                    for (Map.Entry<Map.Entry<String, Set<Object>>, List<Document>> r : resultados) {
+                        Map<Object, Document> coleccion = precargados.computeIfAbsent(r.getKey().getKey(), k -> new HashMap<>());
+                        for (Document d : r.getValue()) {
+                            coleccion.put(d.get("_id"), d);
+                        }
+                        // Las referencias colgantes quedan marcadas para no volver a buscarlas
+                        r.getKey().getValue().forEach(id -> coleccion.putIfAbsent(id, null));
+                    }
+                    // Se recolecta después de marcar todo el nivel, para no pedir dos veces lo ya traído
+                    for (Map.Entry<Map.Entry<String, Set<Object>>, List<Document>> r : resultados) {
+                        referencias.recolectar(r.getKey().getKey(), r.getValue(), precargados, siguientes);
+                    }
+                    return traerNivel(siguientes, precargados);
+                });
+    }
+}
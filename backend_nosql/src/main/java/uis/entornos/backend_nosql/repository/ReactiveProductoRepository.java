@@ -0,0 +1,12 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.Producto;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/**
+ * Lecturas no bloqueantes del catálogo. Igual que en {@link ReactiveVentaRepository},
+ * la sucursal (@DBRef) solo viene resuelta en los métodos de
+ * {@link ReactiveProductoRepositoryCustom}.
+ */
+public interface ReactiveProductoRepository extends ReactiveMongoRepository<Producto, String>, ReactiveProductoRepositoryCustom {
+}
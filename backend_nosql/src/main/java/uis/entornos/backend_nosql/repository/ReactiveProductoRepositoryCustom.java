@@ -0,0 +1,12 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.Producto;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveProductoRepositoryCustom {
+
+    /**
+     * Productos de la sucursal (todos si sucursalId es null) con la sucursal resuelta.
+     */
+    Flux<Producto> listarPorSucursal(String sucursalId);
+}
@@ -0,0 +1,29 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.model.Sucursal;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+public class ReactiveProductoRepositoryCustomImpl implements ReactiveProductoRepositoryCustom {
+
+    private static final int LOTE = 500;
+
+    private final ReactiveDbRefBatchLoader batchLoader;
+
+    public ReactiveProductoRepositoryCustomImpl(ReactiveDbRefBatchLoader batchLoader) {
+        this.batchLoader = batchLoader;
+    }
+
+    @Override
+    public Flux<Producto> listarPorSucursal(String sucursalId) {
+        Query query = new Query();
+        if (sucursalId != null) {
+            Sucursal ref = new Sucursal();
+            ref.setId(sucursalId);
+            query.addCriteria(Criteria.where("sucursal").is(ref));
+        }
+        return batchLoader.find(query, Producto.class, LOTE);
+    }
+}
@@ -0,0 +1,12 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.Venta;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/**
+ * Lecturas no bloqueantes de ventas. Las consultas derivadas no resuelven los @DBRef
+ * en el driver reactivo: para leer ventas completas usar los métodos de
+ * {@link ReactiveVentaRepositoryCustom}.
+ */
+public interface ReactiveVentaRepository extends ReactiveMongoRepository<Venta, String>, ReactiveVentaRepositoryCustom {
+}
@@ -0,0 +1,15 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.Venta;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+public interface ReactiveVentaRepositoryCustom {
+
+    /**
+     * Mismo filtro que {@link VentaRepositoryCustom#filtrar} (null = sin filtro),
+     * ordenado por fecha y emitido por lotes con las referencias resueltas.
+     */
+    Flux<Venta> filtrar(String sucursalId, LocalDateTime desde, LocalDateTime hasta);
+}
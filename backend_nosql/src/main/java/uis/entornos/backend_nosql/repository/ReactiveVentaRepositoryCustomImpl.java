@@ -0,0 +1,27 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.Venta;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+public class ReactiveVentaRepositoryCustomImpl implements ReactiveVentaRepositoryCustom {
+
+    // Ventas que se piden al cursor (y se resuelven) por vez
+    private static final int LOTE = 500;
+
+    private final ReactiveDbRefBatchLoader batchLoader;
+
+    public ReactiveVentaRepositoryCustomImpl(ReactiveDbRefBatchLoader batchLoader) {
+        this.batchLoader = batchLoader;
+    }
+
+    @Override
+    public Flux<Venta> filtrar(String sucursalId, LocalDateTime desde, LocalDateTime hasta) {
+        Query query = new Query(VentaRepositoryCustomImpl.criterioFiltro(sucursalId, desde, hasta))
+                .with(Sort.by(Sort.Direction.ASC, "fecha"));
+        return batchLoader.find(query, Venta.class, LOTE);
+    }
+}
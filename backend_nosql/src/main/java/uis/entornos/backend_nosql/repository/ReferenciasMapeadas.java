@@ -0,0 +1,101 @@
+package uis.entornos.backend_nosql.repository;
+
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Junta los ids que DbRefBatchLoader y ReactiveDbRefBatchLoader deben traer por $in.
+ *
+ * Solo se siguen las propiedades que el modelo mapea con @DBRef (también dentro de
+ * objetos embebidos, p. ej. venta.detalles[].producto). Un DBRef guardado en un campo
+ * que la entidad ya no declara (como las listas empleados/productos que tenían las
+ * sucursales) no se trae: la conversión lo ignoraría de todos modos.
+ */
+class ReferenciasMapeadas {
+
+    private final MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> contexto;
+    // colección -> entidad guardada en ella (vacío si ninguna entidad usa esa colección)
+    private final Map<String, Optional<MongoPersistentEntity<?>>> porColeccion = new ConcurrentHashMap<>();
+
+    ReferenciasMapeadas(MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> contexto) {
+        this.contexto = contexto;
+    }
+
+    MongoPersistentEntity<?> entidad(Class<?> tipo) {
+        return contexto.getRequiredPersistentEntity(tipo);
+    }
+
+    /**
+     * Documentos traídos de {@code coleccion} (referencias del nivel anterior).
+     */
+    void recolectar(String coleccion, Collection<Document> docs, Map<String, Map<Object, Document>> precargados,
+            Map<String, Set<Object>> pendientes) {
+        porColeccion.computeIfAbsent(coleccion, c -> contexto.getPersistentEntities().stream()
+                        .<MongoPersistentEntity<?>>map(e -> e)
+                        .filter(e -> c.equals(e.getCollection()))
+                        .findFirst())
+                .ifPresent(entidad -> recolectar(entidad, docs, precargados, pendientes));
+    }
+
+    void recolectar(MongoPersistentEntity<?> entidad, Collection<Document> docs,
+            Map<String, Map<Object, Document>> precargados, Map<String, Set<Object>> pendientes) {
+        for (Document doc : docs) {
+            recolectar(entidad, doc, precargados, pendientes);
+        }
+    }
+
+    private void recolectar(MongoPersistentEntity<?> entidad, Document doc,
+            Map<String, Map<Object, Document>> precargados, Map<String, Set<Object>> pendientes) {
+        for (MongoPersistentProperty propiedad : entidad) {
+            Object valor = doc.get(propiedad.getFieldName());
+            if (valor == null) {
+                continue;
+            }
+            if (propiedad.isDbReference()) {
+                agregarReferencias(valor, precargados, pendientes);
+            } else if (propiedad.isEntity()) {
+                MongoPersistentEntity<?> embebida = contexto.getPersistentEntity(propiedad.getActualType());
+                if (embebida != null) {
+                    for (Document d : documentos(valor)) {
+                        recolectar(embebida, d, precargados, pendientes);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void agregarReferencias(Object valor, Map<String, Map<Object, Document>> precargados,
+            Map<String, Set<Object>> pendientes) {
+        if (valor instanceof DBRef ref) {
+            Map<Object, Document> coleccion = precargados.get(ref.getCollectionName());
+            if (coleccion == null || !coleccion.containsKey(ref.getId())) {
+                pendientes.computeIfAbsent(ref.getCollectionName(), k -> new HashSet<>()).add(ref.getId());
+            }
+        } else if (valor instanceof Collection<?> lista) {
+            for (Object v : lista) {
+                agregarReferencias(v, precargados, pendientes);
+            }
+        }
+    }
+
+    private static List<Document> documentos(Object valor) {
+        if (valor instanceof Document d) {
+            return List.of(d);
+        }
+        if (valor instanceof Collection<?> lista) {
+            return lista.stream().filter(Document.class::isInstance).map(Document.class::cast).toList();
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,110 @@
+package uis.entornos.backend_nosql.repository;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Secuencia de cambios de "productos": cada escritura de un producto (alta, edición,
+ * baja o stock) guarda un número creciente en el campo "cambio", así una caja pide
+ * solo lo que cambió desde el último número que vio.
+ *
+ * Los números salen del contador "productos" de {@link Contadores}.
+ * Un número reservado puede quedar escrito después que uno mayor, así que
+ * {@link #confirmado()} devuelve el mayor número sin reservas pendientes por debajo
+ * y los cambios se entregan solo hasta ahí. Las reservas en curso se anotan en el mismo
+ * documento del contador, en la misma escritura que toma los números, así que se ven
+ * las de todas las instancias.
+ */
+@Component
+public class SecuenciaCambios {
+
+    private static final Logger log = LoggerFactory.getLogger(SecuenciaCambios.class);
+
+    private static final String PRODUCTOS = "productos";
+    // Una reserva anotada hace más que esto es de una instancia que se cayó a mitad de la
+    // escritura: deja de frenar lo confirmado y se borra
+    static final long VENCIMIENTO_MS = 60_000;
+
+    private final Contadores contadores;
+    // Mayor valor del contador que vio esta instancia (-1: todavía ninguno). Una reserva
+    // que se pide después toma números mayores, así que sirve de piso para anotarla
+    private final AtomicLong visto = new AtomicLong(-1);
+    // Reservas de esta instancia cuya escritura no terminó: primer número -> anotación
+    private final Map<Long, String> enCurso = new ConcurrentHashMap<>();
+
+    public SecuenciaCambios(Contadores contadores) {
+        this.contadores = contadores;
+    }
+
+    /**
+     * Reserva {@code cantidad} números consecutivos y devuelve el primero.
+     * Hay que llamar a {@link #liberar} (en un finally) cuando la escritura termina.
+     */
+    public long reservar(int cantidad) {
+        String reserva = new ObjectId().toHexString();
+        long ultimo = contadores.incrementarPendiente(PRODUCTOS, cantidad,
+                new Contadores.Pendiente(reserva, piso(), System.currentTimeMillis()));
+        visto.accumulateAndGet(ultimo, Math::max);
+        long primero = ultimo - cantidad + 1;
+        enCurso.put(primero, reserva);
+        return primero;
+    }
+
+    public void liberar(long primero) {
+        String reserva = enCurso.remove(primero);
+        if (reserva == null) {
+            return;
+        }
+        try {
+            contadores.quitarPendientes(PRODUCTOS, List.of(reserva));
+        } catch (RuntimeException e) {
+            // Se llama desde un finally: no tapar el error de la escritura. La anotación vence sola
+            log.warn("No se pudo quitar la reserva de cambios {}: {}", primero, e.getMessage());
+        }
+    }
+
+    // Mayor número hasta el cual todos los cambios ya están escritos
+    public long confirmado() {
+        Contadores.ConPendientes leido = contadores.leerConPendientes(PRODUCTOS);
+        visto.accumulateAndGet(leido.valor(), Math::max);
+        long limite = System.currentTimeMillis() - VENCIMIENTO_MS;
+        long confirmado = leido.valor();
+        List<String> vencidas = new ArrayList<>();
+        for (Contadores.Pendiente p : leido.pendientes()) {
+            if (p.anotada() < limite) {
+                vencidas.add(p.reserva());
+            } else {
+                confirmado = Math.min(confirmado, p.piso());
+            }
+        }
+        if (!vencidas.isEmpty()) {
+            log.warn("Reservas de cambios vencidas (instancia caída a mitad de una escritura): {}", vencidas.size());
+            contadores.quitarPendientes(PRODUCTOS, vencidas);
+        }
+        return confirmado;
+    }
+
+    // Hasta qué número se purgaron lápidas: desde antes de ahí no se puede sincronizar
+    public long podado() {
+        return contadores.leer(PRODUCTOS, "podado");
+    }
+
+    public void registrarPoda(long hasta) {
+        contadores.subirA(PRODUCTOS, "podado", hasta);
+    }
+
+    private long piso() {
+        if (visto.get() < 0) {
+            visto.accumulateAndGet(contadores.leer(PRODUCTOS), Math::max);
+        }
+        return visto.get();
+    }
+}
@@ -0,0 +1,22 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.VentaDiaria;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface VentaDiariaRepository extends MongoRepository<VentaDiaria, String>, VentaDiariaRepositoryCustom {
+
+    // Rango de días inclusivo en ambos extremos
+    @Query(value = "{ 'dia': { $gte: ?0, $lte: ?1 } }", sort = "{ 'dia': 1 }")
+    List<VentaDiaria> findByDiaRange(LocalDate desde, LocalDate hasta);
+
+    @Query(value = "{ 'dia': { $gte: ?0, $lte: ?1 }, 'sucursalId': ?2 }", sort = "{ 'dia': 1 }")
+    List<VentaDiaria> findByDiaRangeAndSucursalId(LocalDate desde, LocalDate hasta, String sucursalId);
+
+    // Resúmenes del rango que no están en ids (días que quedaron sin ventas)
+    @Query(value = "{ 'dia': { $gte: ?0, $lte: ?1 }, '_id': { $nin: ?2 } }", delete = true)
+    long deleteByDiaRangeExcept(LocalDate desde, LocalDate hasta, Collection<String> ids);
+}
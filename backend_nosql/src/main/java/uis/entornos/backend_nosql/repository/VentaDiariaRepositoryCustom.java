@@ -0,0 +1,35 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.Venta;
+import uis.entornos.backend_nosql.model.VentaDiaria;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+public interface VentaDiariaRepositoryCustom {
+
+    /**
+     * Suma una venta a su resumen (día, sucursal) con un único upsert + $inc.
+     */
+    void acumular(Venta venta);
+
+    /**
+     * Suma varias ventas: se agrupan en memoria por (día, sucursal) y se aplica
+     * un upsert + $inc por resumen en un único bulk write.
+     */
+    void acumularLote(Collection<Venta> ventas);
+
+    /**
+     * Recalcula los resúmenes del rango [desde, hasta] recorriendo "ventas" con
+     * un cursor (solo los campos necesarios, sin resolver referencias).
+     * Se saltean las ventas cuyo id esté en excluidas; el conjunto puede crecer
+     * mientras se recorre.
+     */
+    Collection<VentaDiaria> calcularDesdeVentas(LocalDate desde, LocalDate hasta, Set<String> excluidas);
+
+    // Día de la venta más antigua y de la más reciente (vacío si no hay ventas)
+    Optional<LocalDate> primerDiaConVentas();
+
+    Optional<LocalDate> ultimoDiaConVentas();
+}
@@ -0,0 +1,204 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.DetalleVenta;
+import uis.entornos.backend_nosql.model.Venta;
+import uis.entornos.backend_nosql.model.VentaDiaria;
+import com.mongodb.DBRef;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class VentaDiariaRepositoryCustomImpl implements VentaDiariaRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public VentaDiariaRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void acumular(Venta venta) {
+        if (venta.getSucursal() == null || venta.getFecha() == null) {
+            return;
+        }
+        LocalDate dia = venta.getFecha().toLocalDate();
+        String sucursalId = venta.getSucursal().getId();
+        Decimal128 total = new Decimal128(venta.getTotal() != null ? venta.getTotal() : BigDecimal.ZERO);
+
+        Update update = new Update()
+                .setOnInsert("dia", dia)
+                .setOnInsert("sucursalId", sucursalId)
+                .inc("cantidadVentas", 1)
+                .inc("unidades", unidades(venta.getDetalles()))
+                .inc("total", total);
+        if (venta.getEmpleado() != null) {
+            String prefijo = "empleados." + venta.getEmpleado().getId();
+            update.inc(prefijo + ".cantidadVentas", 1).inc(prefijo + ".total", total);
+        }
+
+        mongoTemplate.upsert(Query.query(Criteria.where("id").is(VentaDiaria.idPara(dia, sucursalId))),
+                update, VentaDiaria.class);
+    }
+
+    @Override
+    public void acumularLote(Collection<Venta> ventas) {
+        // Primero se suman en memoria: un resumen recibe un solo $inc aunque tenga muchas ventas
+        Map<String, VentaDiaria> resumenes = new LinkedHashMap<>();
+        for (Venta venta : ventas) {
+            if (venta.getSucursal() == null || venta.getFecha() == null) {
+                continue;
+            }
+            LocalDate dia = venta.getFecha().toLocalDate();
+            String sucursalId = venta.getSucursal().getId();
+            BigDecimal total = venta.getTotal() != null ? venta.getTotal() : BigDecimal.ZERO;
+
+            VentaDiaria r = resumenes.computeIfAbsent(VentaDiaria.idPara(dia, sucursalId), id -> {
+                VentaDiaria nuevo = new VentaDiaria();
+                nuevo.setId(id);
+                nuevo.setDia(dia);
+                nuevo.setSucursalId(sucursalId);
+                return nuevo;
+            });
+            r.setCantidadVentas(r.getCantidadVentas() + 1);
+            r.setUnidades(r.getUnidades() + unidades(venta.getDetalles()));
+            r.setTotal(r.getTotal().add(total));
+            if (venta.getEmpleado() != null) {
+                VentaDiaria.TotalEmpleado e = r.getEmpleados()
+                        .computeIfAbsent(venta.getEmpleado().getId(), k -> new VentaDiaria.TotalEmpleado());
+                e.setCantidadVentas(e.getCantidadVentas() + 1);
+                e.setTotal(e.getTotal().add(total));
+            }
+        }
+        if (resumenes.isEmpty()) {
+            return;
+        }
+
+        // Ids distintos en cada operación: el bulk puede ir desordenado
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, VentaDiaria.class);
+        for (VentaDiaria r : resumenes.values()) {
+            Update update = new Update()
+                    .setOnInsert("dia", r.getDia())
+                    .setOnInsert("sucursalId", r.getSucursalId())
+                    .inc("cantidadVentas", r.getCantidadVentas())
+                    .inc("unidades", r.getUnidades())
+                    .inc("total", new Decimal128(r.getTotal()));
+            r.getEmpleados().forEach((empleadoId, e) -> update
+                    .inc("empleados." + empleadoId + ".cantidadVentas", e.getCantidadVentas())
+                    .inc("empleados." + empleadoId + ".total", new Decimal128(e.getTotal())));
+            bulk.upsert(Query.query(Criteria.where("id").is(r.getId())), update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public Collection<VentaDiaria> calcularDesdeVentas(LocalDate desde, LocalDate hasta, Set<String> excluidas) {
+        ZoneId zona = ZoneId.systemDefault();
+        Date inicio = Date.from(desde.atStartOfDay(zona).toInstant());
+        Date fin = Date.from(hasta.plusDays(1).atStartOfDay(zona).toInstant());
+
+        Map<String, VentaDiaria> resumenes = new LinkedHashMap<>();
+        for (Document doc : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Venta.class))
+                .find(Filters.and(Filters.gte("fecha", inicio), Filters.lt("fecha", fin)))
+                .projection(Projections.include("fecha", "total", "sucursal", "empleado", "detalles.cantidad"))
+                .batchSize(1000)) {
+
+            DBRef sucursal = doc.get("sucursal", DBRef.class);
+            Date fecha = doc.getDate("fecha");
+            if (sucursal == null || fecha == null || excluidas.contains(String.valueOf(doc.get("_id")))) {
+                continue;
+            }
+            LocalDate dia = fecha.toInstant().atZone(zona).toLocalDate();
+            String sucursalId = sucursal.getId().toString();
+            BigDecimal total = aBigDecimal(doc.get("total"));
+
+            VentaDiaria r = resumenes.computeIfAbsent(VentaDiaria.idPara(dia, sucursalId), id -> {
+                VentaDiaria nuevo = new VentaDiaria();
+                nuevo.setId(id);
+                nuevo.setDia(dia);
+                nuevo.setSucursalId(sucursalId);
+                return nuevo;
+            });
+            r.setCantidadVentas(r.getCantidadVentas() + 1);
+            r.setTotal(r.getTotal().add(total));
+            for (Object d : doc.getList("detalles", Object.class, List.of())) {
+                if (d instanceof Document det && det.get("cantidad") instanceof Number n) {
+                    r.setUnidades(r.getUnidades() + n.longValue());
+                }
+            }
+
+            DBRef empleado = doc.get("empleado", DBRef.class);
+            if (empleado != null) {
+                VentaDiaria.TotalEmpleado e = r.getEmpleados()
+                        .computeIfAbsent(empleado.getId().toString(), k -> new VentaDiaria.TotalEmpleado());
+                e.setCantidadVentas(e.getCantidadVentas() + 1);
+                e.setTotal(e.getTotal().add(total));
+            }
+        }
+        return resumenes.values();
+    }
+
+    @Override
+    public Optional<LocalDate> primerDiaConVentas() {
+        return diaExtremo(Sorts.ascending("fecha"));
+    }
+
+    @Override
+    public Optional<LocalDate> ultimoDiaConVentas() {
+        return diaExtremo(Sorts.descending("fecha"));
+    }
+
+    private Optional<LocalDate> diaExtremo(Bson orden) {
+        Document doc = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Venta.class))
+                .find(Filters.ne("fecha", null))
+                .projection(Projections.include("fecha"))
+                .sort(orden)
+                .first();
+        return Optional.ofNullable(doc)
+                .map(d -> d.getDate("fecha").toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+    }
+
+    private static long unidades(List<DetalleVenta> detalles) {
+        long unidades = 0;
+        if (detalles != null) {
+            for (DetalleVenta d : detalles) {
+                if (d.getCantidad() != null) {
+                    unidades += d.getCantidad();
+                }
+            }
+        }
+        return unidades;
+    }
+
+    // total puede estar guardado como String (BigDecimal por defecto), Decimal128 o número
+    private static BigDecimal aBigDecimal(Object valor) {
+        if (valor instanceof Decimal128 d) {
+            return d.bigDecimalValue();
+        }
+        if (valor instanceof String s && !s.isEmpty()) {
+            return new BigDecimal(s);
+        }
+        if (valor instanceof Number n) {
+            return new BigDecimal(n.toString());
+        }
+        return BigDecimal.ZERO;
+    }
+}
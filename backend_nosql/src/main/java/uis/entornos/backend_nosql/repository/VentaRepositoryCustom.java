@@ -0,0 +1,52 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.Venta;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de ventas que se arman dinámicamente (filtros opcionales)
+ * y se resuelven directamente en MongoDB.
+ */
+public interface VentaRepositoryCustom {
+
+    /**
+     * Filtra ventas por sucursal y rango de fechas [desde, hasta).
+     * Cualquier parámetro null se ignora. Usa el índice (sucursal, fecha).
+     */
+    Page<Venta> filtrar(String sucursalId, LocalDateTime desde, LocalDateTime hasta, Pageable pageable);
+
+    /**
+     * Mismo filtro que {@link #filtrar} recorrido con un cursor por lotes.
+     * El Stream debe cerrarse para liberar el cursor.
+     */
+    Stream<Venta> streamFiltradas(String sucursalId, LocalDateTime desde, LocalDateTime hasta);
+
+    /**
+     * Analítica del rango en una sola agregación ($match + $facet): resumen (cantidad,
+     * ingresos, ticket promedio, unidades), top de productos por unidades y por ingresos,
+     * ingresos por sucursal y periodo ("day", "week" o "month") y ventas por empleado.
+     * Devuelve el documento del $facet con los ids crudos (DBRef) de cada agrupación.
+     */
+    Document analizar(String sucursalId, LocalDateTime desde, LocalDateTime hasta, String periodo, int top);
+
+    /**
+     * Ventas cuyo descuento de stock aún no se volcó a productos, ordenadas por lote.
+     */
+    List<Venta> listarInventarioPendiente();
+
+    /**
+     * Asigna un lote de volcado a ventas con inventario pendiente.
+     */
+    void asignarLoteInventario(Collection<String> ventaIds, long lote);
+
+    /**
+     * Marca como aplicadas (ya no pendientes) las ventas del lote.
+     */
+    void cerrarLoteInventario(long lote);
+}
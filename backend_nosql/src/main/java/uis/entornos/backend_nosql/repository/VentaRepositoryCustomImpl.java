@@ -0,0 +1,169 @@
+package uis.entornos.backend_nosql.repository;
+
+import uis.entornos.backend_nosql.model.Sucursal;
+import uis.entornos.backend_nosql.model.Venta;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class VentaRepositoryCustomImpl implements VentaRepositoryCustom {
+
+    // Tamaño de lote al recorrer ventas con cursor
+    private static final int LOTE_STREAM = 500;
+
+    // Formato del periodo en $dateToString ("week" es la semana ISO, p. ej. 2025-W07)
+    private static final Map<String, String> FORMATO_PERIODO = Map.of(
+            "day", "%Y-%m-%d",
+            "week", "%G-W%V",
+            "month", "%Y-%m");
+
+    private final MongoTemplate mongoTemplate;
+    private final DbRefBatchLoader batchLoader;
+
+    public VentaRepositoryCustomImpl(MongoTemplate mongoTemplate, DbRefBatchLoader batchLoader) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchLoader = batchLoader;
+    }
+
+    @Override
+    public Page<Venta> filtrar(String sucursalId, LocalDateTime desde, LocalDateTime hasta, Pageable pageable) {
+        Criteria criteria = criterioFiltro(sucursalId, desde, hasta);
+        Query query = new Query(criteria);
+
+        // Orden estable por fecha (el front toma las últimas del final de la lista)
+        Sort orden = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(Sort.Direction.ASC, "fecha");
+        query.with(orden);
+        if (pageable.isPaged()) {
+            query.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+
+        // Sucursal, empleado, cliente y productos se resuelven con un $in por colección
+        List<Venta> ventas = batchLoader.find(query, Venta.class);
+
+        // El conteo solo se ejecuta si la página no basta para conocer el total
+        return PageableExecutionUtils.getPage(ventas, pageable,
+                () -> mongoTemplate.count(new Query(criteria), Venta.class));
+    }
+
+    @Override
+    public Stream<Venta> streamFiltradas(String sucursalId, LocalDateTime desde, LocalDateTime hasta) {
+        Query query = new Query(criterioFiltro(sucursalId, desde, hasta))
+                .with(Sort.by(Sort.Direction.ASC, "fecha"));
+        return batchLoader.stream(query, Venta.class, LOTE_STREAM);
+    }
+
+    @Override
+    public Document analizar(String sucursalId, LocalDateTime desde, LocalDateTime hasta, String periodo, int top) {
+        String formato = FORMATO_PERIODO.get(periodo);
+        if (formato == null) {
+            throw new IllegalArgumentException("Periodo inválido: " + periodo);
+        }
+
+        // El $match usa los mismos índices que /filtrar (sucursal + fecha, o solo fecha)
+        MongoPersistentEntity<?> entidad = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Venta.class);
+        Document filtro = new QueryMapper(mongoTemplate.getConverter())
+                .getMappedObject(criterioFiltro(sucursalId, desde, hasta).getCriteriaObject(), entidad);
+
+        // total y subtotal pueden estar guardados como String (BigDecimal por defecto) o Decimal128
+        Document total = aDecimal("$total");
+        Document porProducto = new Document("$group", new Document("_id", "$detalles.producto")
+                .append("unidades", new Document("$sum", "$detalles.cantidad"))
+                .append("ingresos", new Document("$sum", aDecimal("$detalles.subtotal"))));
+        Document unwind = new Document("$unwind", "$detalles");
+
+        Document facet = new Document()
+                .append("resumen", List.of(new Document("$group", new Document("_id", null)
+                        .append("cantidadVentas", new Document("$sum", 1))
+                        .append("ingresos", new Document("$sum", total))
+                        .append("ticketPromedio", new Document("$avg", total))
+                        .append("unidades", new Document("$sum", new Document("$sum", "$detalles.cantidad"))))))
+                .append("topPorUnidades", List.of(unwind, porProducto,
+                        new Document("$sort", new Document("unidades", -1).append("ingresos", -1)),
+                        new Document("$limit", top)))
+                .append("topPorIngresos", List.of(unwind, porProducto,
+                        new Document("$sort", new Document("ingresos", -1).append("unidades", -1)),
+                        new Document("$limit", top)))
+                .append("porSucursal", List.of(
+                        new Document("$group", new Document("_id", new Document("sucursal", "$sucursal")
+                                .append("periodo", new Document("$dateToString", new Document("format", formato)
+                                        .append("date", "$fecha")
+                                        .append("timezone", ZoneId.systemDefault().getId()))))
+                                .append("cantidadVentas", new Document("$sum", 1))
+                                .append("ingresos", new Document("$sum", total))),
+                        new Document("$sort", new Document("_id.periodo", 1))))
+                .append("porEmpleado", List.of(
+                        new Document("$group", new Document("_id", "$empleado")
+                                .append("cantidadVentas", new Document("$sum", 1))
+                                .append("ingresos", new Document("$sum", total))
+                                .append("ticketPromedio", new Document("$avg", total))),
+                        new Document("$sort", new Document("ingresos", -1))));
+
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Venta.class))
+                .aggregate(List.of(new Document("$match", filtro), new Document("$facet", facet)))
+                .allowDiskUse(true)
+                .first();
+    }
+
+    private static Document aDecimal(String campo) {
+        return new Document("$convert", new Document("input", campo).append("to", "decimal").append("onNull", 0));
+    }
+
+    @Override
+    public List<Venta> listarInventarioPendiente() {
+        Query query = Query.query(Criteria.where("inventarioPendiente").is(true))
+                .with(Sort.by(Sort.Direction.ASC, "loteInventario", "fecha"));
+        return batchLoader.find(query, Venta.class);
+    }
+
+    @Override
+    public void asignarLoteInventario(Collection<String> ventaIds, long lote) {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("id").in(ventaIds).and("inventarioPendiente").is(true)),
+                new Update().set("loteInventario", lote),
+                Venta.class);
+    }
+
+    @Override
+    public void cerrarLoteInventario(long lote) {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("inventarioPendiente").is(true).and("loteInventario").is(lote)),
+                new Update().unset("inventarioPendiente").unset("loteInventario"),
+                Venta.class);
+    }
+
+    // También lo usa ReactiveVentaRepositoryCustomImpl
+    static Criteria criterioFiltro(String sucursalId, LocalDateTime desde, LocalDateTime hasta) {
+        Criteria criteria = new Criteria();
+
+        if (sucursalId != null && !sucursalId.isEmpty()) {
+            // Se compara contra la referencia DBRef completa, igual que findBySucursal
+            Sucursal ref = new Sucursal();
+            ref.setId(sucursalId);
+            criteria = criteria.and("sucursal").is(ref);
+        }
+
+        if (desde != null || hasta != null) {
+            Criteria fecha = criteria.and("fecha");
+            if (desde != null) fecha.gte(desde);
+            if (hasta != null) fecha.lt(hasta);
+        }
+
+        return criteria;
+    }
+}
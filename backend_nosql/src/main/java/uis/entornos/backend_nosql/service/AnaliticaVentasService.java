@@ -0,0 +1,163 @@
+package uis.entornos.backend_nosql.service;
+
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.stereotype.Service;
+import uis.entornos.backend_nosql.dto.AnaliticaVentasDTO;
+import uis.entornos.backend_nosql.model.Empleado;
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.model.Sucursal;
+import uis.entornos.backend_nosql.repository.EmpleadoRepository;
+import uis.entornos.backend_nosql.repository.ProductoRepository;
+import uis.entornos.backend_nosql.repository.SucursalRepository;
+import uis.entornos.backend_nosql.repository.VentaRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Analítica de ventas calculada en Mongo: una agregación por consulta
+ * (ver VentaRepositoryCustom.analizar) y luego solo se completan los nombres.
+ */
+@Service
+public class AnaliticaVentasService {
+
+    private static final Map<String, String> PERIODOS = Map.of(
+            "dia", "day",
+            "semana", "week",
+            "mes", "month");
+    private static final int MAX_TOP = 100;
+
+    private final VentaRepository ventaRepo;
+    private final ProductoRepository productoRepo;
+    private final SucursalRepository sucursalRepo;
+    private final EmpleadoRepository empleadoRepo;
+
+    public AnaliticaVentasService(VentaRepository ventaRepo, ProductoRepository productoRepo,
+            SucursalRepository sucursalRepo, EmpleadoRepository empleadoRepo) {
+        this.ventaRepo = ventaRepo;
+        this.productoRepo = productoRepo;
+        this.sucursalRepo = sucursalRepo;
+        this.empleadoRepo = empleadoRepo;
+    }
+
+    public AnaliticaVentasDTO analizar(String sucursalId, LocalDate fechaInicio, LocalDate fechaFin,
+            String periodo, int top) {
+        String unidad = PERIODOS.get(periodo);
+        if (unidad == null) {
+            throw new RuntimeException("Periodo inválido: " + periodo + " (dia, semana o mes)");
+        }
+        if (top < 1 || top > MAX_TOP) {
+            throw new RuntimeException("top debe estar entre 1 y " + MAX_TOP);
+        }
+        LocalDateTime desde = fechaInicio != null ? fechaInicio.atStartOfDay() : null;
+        LocalDateTime hasta = fechaFin != null ? fechaFin.plusDays(1).atStartOfDay() : null;
+
+        Document r = ventaRepo.analizar(sucursalId, desde, hasta, unidad, top);
+        List<Document> resumen = r.getList("resumen", Document.class, List.of());
+        List<Document> topUnidades = r.getList("topPorUnidades", Document.class, List.of());
+        List<Document> topIngresos = r.getList("topPorIngresos", Document.class, List.of());
+        List<Document> porSucursal = r.getList("porSucursal", Document.class, List.of());
+        List<Document> porEmpleado = r.getList("porEmpleado", Document.class, List.of());
+
+        // Nombres: un $in por colección, solo sobre los ids que devolvió la agregación
+        Set<String> productoIds = new HashSet<>();
+        topUnidades.forEach(d -> agregarSiHay(productoIds, id(d.get("_id"))));
+        topIngresos.forEach(d -> agregarSiHay(productoIds, id(d.get("_id"))));
+        Set<String> sucursalIds = new HashSet<>();
+        porSucursal.forEach(d -> agregarSiHay(sucursalIds, id(d.get("_id", Document.class).get("sucursal"))));
+        Set<String> empleadoIds = new HashSet<>();
+        porEmpleado.forEach(d -> agregarSiHay(empleadoIds, id(d.get("_id"))));
+
+        Map<String, String> productos = new HashMap<>();
+        for (Producto p : productoRepo.listarPorIds(productoIds)) {
+            productos.put(p.getId(), p.getNombre());
+        }
+        Map<String, String> sucursales = new HashMap<>();
+        for (Sucursal s : sucursalRepo.findAllById(sucursalIds)) {
+            sucursales.put(s.getId(), s.getNombre());
+        }
+        Map<String, String> empleados = new HashMap<>();
+        for (Empleado e : empleadoRepo.listarPorIds(empleadoIds)) {
+            empleados.put(e.getId(), e.getNombre());
+        }
+
+        Document total = resumen.isEmpty() ? new Document() : resumen.get(0);
+
+        List<AnaliticaVentasDTO.IngresoSucursal> ingresosSucursal = new ArrayList<>();
+        for (Document d : porSucursal) {
+            Document clave = d.get("_id", Document.class);
+            String id = id(clave.get("sucursal"));
+            ingresosSucursal.add(new AnaliticaVentasDTO.IngresoSucursal(clave.getString("periodo"), id,
+                    sucursales.get(id), entero(d.get("cantidadVentas")), decimal(d.get("ingresos"))));
+        }
+
+        List<AnaliticaVentasDTO.VentasEmpleado> ventasEmpleado = new ArrayList<>();
+        for (Document d : porEmpleado) {
+            String id = id(d.get("_id"));
+            ventasEmpleado.add(new AnaliticaVentasDTO.VentasEmpleado(id, empleados.get(id),
+                    entero(d.get("cantidadVentas")), decimal(d.get("ingresos")), promedio(d.get("ticketPromedio"))));
+        }
+
+        return new AnaliticaVentasDTO(
+                entero(total.get("cantidadVentas")),
+                entero(total.get("unidades")),
+                decimal(total.get("ingresos")),
+                promedio(total.get("ticketPromedio")),
+                productosTop(topUnidades, productos),
+                productosTop(topIngresos, productos),
+                ingresosSucursal,
+                ventasEmpleado);
+    }
+
+    private static List<AnaliticaVentasDTO.ProductoTop> productosTop(List<Document> docs, Map<String, String> nombres) {
+        List<AnaliticaVentasDTO.ProductoTop> top = new ArrayList<>();
+        for (Document d : docs) {
+            String id = id(d.get("_id"));
+            top.add(new AnaliticaVentasDTO.ProductoTop(id, nombres.get(id),
+                    entero(d.get("unidades")), decimal(d.get("ingresos"))));
+        }
+        return top;
+    }
+
+    // Las agrupaciones quedan por la referencia completa (DBRef): se toma su id
+    private static String id(Object ref) {
+        if (ref instanceof DBRef dbRef) {
+            return dbRef.getId().toString();
+        }
+        return ref != null ? ref.toString() : null;
+    }
+
+    private static void agregarSiHay(Set<String> ids, String id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    private static long entero(Object valor) {
+        return valor instanceof Number n ? n.longValue() : 0;
+    }
+
+    private static BigDecimal decimal(Object valor) {
+        if (valor instanceof Decimal128 d) {
+            return d.bigDecimalValue();
+        }
+        if (valor instanceof Number n) {
+            return new BigDecimal(n.toString());
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static BigDecimal promedio(Object valor) {
+        return decimal(valor).setScale(2, RoundingMode.HALF_UP);
+    }
+}
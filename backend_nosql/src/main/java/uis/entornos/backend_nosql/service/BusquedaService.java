@@ -0,0 +1,168 @@
+package uis.entornos.backend_nosql.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uis.entornos.backend_nosql.dto.ProductoResponseDTO;
+import uis.entornos.backend_nosql.model.Cliente;
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.model.Sucursal;
+import uis.entornos.backend_nosql.repository.ClienteRepository;
+import uis.entornos.backend_nosql.repository.ProductoRepository;
+import uis.entornos.backend_nosql.utils.IndicePrefijos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Búsqueda por prefijo (typeahead) de productos y clientes sin ir a Mongo.
+ *
+ * Los índices se arman al arrancar (en segundo plano, para no demorar el inicio) y
+ * se vuelven a armar cada {@code busqueda.indice.reconstruir-ms}, lo que también
+ * recoge cambios hechos por otras instancias. Entre reconstrucciones se mantienen
+ * al día con las escrituras de los controladores.
+ *
+ * El índice de productos no guarda el stock: cambia con cada venta y se consulta
+ * aparte al elegir el producto.
+ */
+@Service
+public class BusquedaService {
+
+    private static final Logger log = LoggerFactory.getLogger(BusquedaService.class);
+
+    public static final int LIMITE_POR_DEFECTO = 10;
+    public static final int LIMITE_MAXIMO = 50;
+
+    private final ProductoRepository productoRepo;
+    private final ClienteRepository clienteRepo;
+
+    private volatile Indices actuales = new Indices(new IndicePrefijos<>(), new IndicePrefijos<>());
+
+    // Escrituras que llegan mientras se reconstruye: se repiten sobre los índices nuevos
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Consumer<Indices>> pendientes;
+
+    public BusquedaService(ProductoRepository productoRepo, ClienteRepository clienteRepo) {
+        this.productoRepo = productoRepo;
+        this.clienteRepo = clienteRepo;
+    }
+
+    public List<ProductoResponseDTO> buscarProductos(String q, String sucursalId, int limite) {
+        return actuales.productos().buscar(q, acotar(limite),
+                p -> sucursalId == null || sucursalId.equals(p.getSucursalId()));
+    }
+
+    public List<Cliente> buscarClientes(String q, int limite) {
+        return actuales.clientes().buscar(q, acotar(limite), c -> true);
+    }
+
+    public void indexarProducto(Producto p) {
+        ProductoResponseDTO dto = aResultado(p);
+        aplicar(i -> i.productos().poner(dto.getId(), dto.getNombre(), dto));
+    }
+
+    public void quitarProducto(String id) {
+        aplicar(i -> i.productos().quitar(id));
+    }
+
+    public void indexarCliente(Cliente c) {
+        aplicar(i -> i.clientes().poner(c.getId(), c.getNombre(), c));
+    }
+
+    public void quitarCliente(String id) {
+        aplicar(i -> i.clientes().quitar(id));
+    }
+
+    // El nombre de la sucursal va copiado en cada producto indexado
+    public void renombrarSucursal(Sucursal s) {
+        aplicar(i -> i.productos().valores().stream()
+                .filter(p -> Objects.equals(s.getId(), p.getSucursalId()))
+                .forEach(p -> i.productos().poner(p.getId(), p.getNombre(), new ProductoResponseDTO(
+                        p.getId(), p.getNombre(), p.getPrecio(), null, p.getSucursalId(), s.getNombre()))));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirAlIniciar() {
+        Thread hilo = new Thread(this::reconstruir, "indice-busqueda");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    @Scheduled(fixedDelayString = "${busqueda.indice.reconstruir-ms:600000}",
+            initialDelayString = "${busqueda.indice.reconstruir-ms:600000}")
+    public void reconstruir() {
+        lock.lock();
+        try {
+            if (pendientes != null) {
+                return; // ya hay una reconstrucción en curso
+            }
+            pendientes = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        Indices nuevos = null;
+        try {
+            long inicio = System.currentTimeMillis();
+            nuevos = new Indices(new IndicePrefijos<>(), new IndicePrefijos<>());
+            // Sucursales resueltas en bloque para copiar su nombre
+            for (Producto p : productoRepo.listarPorSucursal(null)) {
+                ProductoResponseDTO dto = aResultado(p);
+                nuevos.productos().poner(dto.getId(), dto.getNombre(), dto);
+            }
+            for (Cliente c : clienteRepo.findAll()) {
+                nuevos.clientes().poner(c.getId(), c.getNombre(), c);
+            }
+            log.info("Índice de búsqueda armado: {} productos, {} clientes en {} ms",
+                    nuevos.productos().tamanio(), nuevos.clientes().tamanio(), System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            nuevos = null;
+            log.warn("No se pudo armar el índice de búsqueda: {}", e.getMessage());
+        } finally {
+            lock.lock();
+            try {
+                if (nuevos != null) {
+                    pendientes.forEach(nuevos::aplicar);
+                    actuales = nuevos;
+                }
+                pendientes = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void aplicar(Consumer<Indices> cambio) {
+        lock.lock();
+        try {
+            cambio.accept(actuales);
+            if (pendientes != null) {
+                pendientes.add(cambio);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int acotar(int limite) {
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    private static ProductoResponseDTO aResultado(Producto p) {
+        Sucursal s = p.getSucursal();
+        return new ProductoResponseDTO(p.getId(), p.getNombre(), p.getPrecio(), null,
+                s != null ? s.getId() : null, s != null ? s.getNombre() : null);
+    }
+
+    private record Indices(IndicePrefijos<ProductoResponseDTO> productos, IndicePrefijos<Cliente> clientes) {
+        void aplicar(Consumer<Indices> cambio) {
+            cambio.accept(this);
+        }
+    }
+}
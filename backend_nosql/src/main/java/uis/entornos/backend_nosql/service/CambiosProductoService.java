@@ -0,0 +1,231 @@
+package uis.entornos.backend_nosql.service;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uis.entornos.backend_nosql.dto.CambiosProductoDTO;
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.model.ProductoEliminado;
+import uis.entornos.backend_nosql.model.Sucursal;
+import uis.entornos.backend_nosql.repository.ProductoRepository;
+import uis.entornos.backend_nosql.repository.SecuenciaCambios;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Sincronización incremental del catálogo para las cajas: en lugar de bajar todos los
+ * productos, piden los cambios desde la última secuencia que vieron.
+ *
+ * Las altas y ediciones quedan en el propio producto (campo "cambio"); las bajas, y la
+ * salida de un producto de su sucursal anterior, como lápidas en "productos_eliminados",
+ * que se purgan a los {@code productos.cambios.retencion-dias}. Una caja que no consultó
+ * desde antes de la purga recibe {@code recargar} y vuelve a empezar desde 0.
+ */
+@Service
+public class CambiosProductoService {
+
+    private static final Logger log = LoggerFactory.getLogger(CambiosProductoService.class);
+
+    public static final int LIMITE_POR_DEFECTO = 500;
+    public static final int LIMITE_MAXIMO = 1000;
+
+    // Productos sin secuencia (anteriores a este campo) numerados por tanda
+    private static final int LOTE_NUMERACION = 1000;
+
+    private final ProductoRepository productoRepo;
+    private final MongoTemplate mongoTemplate;
+    private final SecuenciaCambios secuencia;
+    private final int retencionDias;
+
+    private volatile boolean numerados;
+
+    public CambiosProductoService(ProductoRepository productoRepo, MongoTemplate mongoTemplate,
+            SecuenciaCambios secuencia, @Value("${productos.cambios.retencion-dias:30}") int retencionDias) {
+        this.productoRepo = productoRepo;
+        this.mongoTemplate = mongoTemplate;
+        this.secuencia = secuencia;
+        this.retencionDias = retencionDias;
+    }
+
+    /**
+     * Guarda el producto con una secuencia nueva. Si venía de otra sucursal deja además
+     * una lápida en la anterior, con la secuencia previa a la del producto.
+     */
+    public Producto guardar(Producto p, String sucursalAnterior) {
+        String sucursalNueva = p.getSucursal() != null ? p.getSucursal().getId() : null;
+        boolean movido = p.getId() != null && sucursalAnterior != null && !sucursalAnterior.equals(sucursalNueva);
+        int cantidad = movido ? 2 : 1;
+        long primero = secuencia.reservar(cantidad);
+        try {
+            if (movido) {
+                mongoTemplate.insert(new ProductoEliminado(p.getId(), sucursalAnterior, primero, LocalDateTime.now()));
+            }
+            p.setCambio(primero + cantidad - 1);
+            return productoRepo.save(p);
+        } finally {
+            secuencia.liberar(primero);
+        }
+    }
+
+    // 🔹 Cada cambio lleva el nombre de la sucursal: al renombrarla, sus productos reciben
+    // una secuencia nueva para que las cajas bajen el nombre actualizado
+    public void sucursalRenombrada(String sucursalId) {
+        int productos = productoRepo.renumerarPorSucursal(sucursalId);
+        log.info("Sucursal {} renombrada: {} productos con secuencia de cambios nueva", sucursalId, productos);
+    }
+
+    // Borra el producto dejando su lápida; devuelve lo que se borró (vacío si no existía)
+    public Optional<Producto> eliminar(String id) {
+        Optional<Producto> producto = productoRepo.findById(id);
+        if (producto.isEmpty()) {
+            return producto;
+        }
+        Sucursal s = producto.get().getSucursal();
+        long cambio = secuencia.reservar(1);
+        try {
+            mongoTemplate.insert(new ProductoEliminado(id, s != null ? s.getId() : null, cambio, LocalDateTime.now()));
+            productoRepo.deleteById(id);
+        } finally {
+            secuencia.liberar(cambio);
+        }
+        return producto;
+    }
+
+    public CambiosProductoDTO cambios(long desde, String sucursalId, int limite) {
+        if (!numerados) {
+            // Recién arrancado y sin numerar los productos viejos: se responde sin cambios
+            // para no entregar un catálogo a medias; la caja vuelve a pedir más tarde
+            return new CambiosProductoDTO(desde, desde, false, false, List.of());
+        }
+        int n = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        // Solo hasta donde no hay escrituras en curso: nada con secuencia menor puede aparecer después
+        long hasta = secuencia.confirmado();
+
+        if (desde > 0 && desde < secuencia.podado()) {
+            return new CambiosProductoDTO(desde, 0, false, true, List.of());
+        }
+        if (desde >= hasta) {
+            return new CambiosProductoDTO(desde, desde, false, false, List.of());
+        }
+
+        // n + 1 de cada lado para saber si quedan más después de mezclar
+        List<Producto> productos = productoRepo.listarCambios(sucursalId, desde, hasta, n + 1);
+        Query bajas = Query.query(Criteria.where("cambio").gt(desde).lte(hasta))
+                .with(Sort.by("cambio"))
+                .limit(n + 1);
+        if (sucursalId != null) {
+            bajas.addCriteria(Criteria.where("sucursalId").is(sucursalId));
+        }
+        List<ProductoEliminado> eliminados = mongoTemplate.find(bajas, ProductoEliminado.class);
+        return mezclar(desde, hasta, n, productos, eliminados);
+    }
+
+    // Mezcla por secuencia de las dos listas ya ordenadas (hasta n + 1 de cada lado): se
+    // entregan n cambios y, si sobró alguno, la próxima consulta sigue desde el último entregado
+    static CambiosProductoDTO mezclar(long desde, long hasta, int n, List<Producto> productos,
+            List<ProductoEliminado> eliminados) {
+        List<CambiosProductoDTO.Cambio> cambios = new ArrayList<>(Math.min(n, productos.size() + eliminados.size()));
+        int i = 0;
+        int j = 0;
+        while (cambios.size() < n && (i < productos.size() || j < eliminados.size())) {
+            if (j >= eliminados.size()
+                    || (i < productos.size() && productos.get(i).getCambio() < eliminados.get(j).getCambio())) {
+                cambios.add(aCambio(productos.get(i++)));
+            } else {
+                ProductoEliminado e = eliminados.get(j++);
+                cambios.add(new CambiosProductoDTO.Cambio(e.getCambio(), e.getProductoId(), true,
+                        null, null, null, e.getSucursalId(), null));
+            }
+        }
+        boolean hayMas = i < productos.size() || j < eliminados.size();
+        long siguiente = hayMas ? cambios.get(cambios.size() - 1).getSecuencia() : hasta;
+        return new CambiosProductoDTO(desde, siguiente, hayMas, false, cambios);
+    }
+
+    // 🔹 Purga de lápidas viejas: primero se anota hasta qué secuencia se purgó, así una
+    // consulta concurrente nunca ve la baja faltante sin enterarse de que debe recargar
+    @Scheduled(fixedDelayString = "${productos.cambios.purga-ms:3600000}",
+            initialDelayString = "${productos.cambios.purga-ms:3600000}")
+    public void purgar() {
+        // Si la numeración del arranque falló (Mongo caído), se reintenta aquí
+        numerarPendientes();
+        Query viejas = Query.query(Criteria.where("fecha").lt(LocalDateTime.now().minusDays(retencionDias)));
+        ProductoEliminado ultima = mongoTemplate.findOne(Query.of(viejas).with(Sort.by(Sort.Direction.DESC, "cambio")),
+                ProductoEliminado.class);
+        if (ultima == null) {
+            return;
+        }
+        secuencia.registrarPoda(ultima.getCambio());
+        long borradas = mongoTemplate.remove(
+                Query.query(Criteria.where("cambio").lte(ultima.getCambio())), ProductoEliminado.class).getDeletedCount();
+        log.info("Lápidas de productos purgadas: {} (hasta la secuencia {})", borradas, ultima.getCambio());
+    }
+
+    // Los productos guardados antes de existir la secuencia no aparecerían en ninguna
+    // consulta incremental: se numeran una vez por arranque, fuera de las peticiones.
+    // Solo escribe donde "cambio" falta, así que una pasada repetida no pisa nada
+    @EventListener(ApplicationReadyEvent.class)
+    public void numerarPendientes() {
+        if (numerados) {
+            return;
+        }
+        try {
+            var coleccion = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Producto.class));
+            long total = 0;
+            while (true) {
+                List<Object> ids = new ArrayList<>();
+                coleccion.find(Filters.exists("cambio", false))
+                        .projection(Projections.include("_id"))
+                        .limit(LOTE_NUMERACION)
+                        .forEach(d -> ids.add(d.get("_id")));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                long primero = secuencia.reservar(ids.size());
+                try {
+                    List<WriteModel<Document>> escrituras = new ArrayList<>(ids.size());
+                    for (int i = 0; i < ids.size(); i++) {
+                        escrituras.add(new UpdateOneModel<>(
+                                Filters.and(Filters.eq("_id", ids.get(i)), Filters.exists("cambio", false)),
+                                Updates.set("cambio", primero + i)));
+                    }
+                    coleccion.bulkWrite(escrituras);
+                } finally {
+                    secuencia.liberar(primero);
+                }
+                total += ids.size();
+            }
+            if (total > 0) {
+                log.info("Productos sin secuencia de cambios numerados: {}", total);
+            }
+            numerados = true;
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron numerar los productos sin secuencia de cambios; se reintenta con la purga", e);
+        }
+    }
+
+    private static CambiosProductoDTO.Cambio aCambio(Producto p) {
+        Sucursal s = p.getSucursal();
+        return new CambiosProductoDTO.Cambio(Objects.requireNonNull(p.getCambio()), p.getId(), false,
+                p.getNombre(), p.getPrecio(), p.getStock(),
+                s != null ? s.getId() : null, s != null ? s.getNombre() : null);
+    }
+}
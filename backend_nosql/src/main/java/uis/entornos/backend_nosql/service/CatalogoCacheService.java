@@ -0,0 +1,122 @@
+package uis.entornos.backend_nosql.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uis.entornos.backend_nosql.dto.ProductoResponseDTO;
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.repository.Pagina;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Caché del catálogo que devuelve ProductoController.listar: cada página de
+ * ProductoResponseDTO ya armada, por sucursal (o "todas"), cursor y límite.
+ *
+ * Acotada a {@code catalogo.cache.max-entradas} páginas (se descarta la menos usada)
+ * y con vencimiento de {@code catalogo.cache.ttl-ms}. Se invalida al crear, actualizar o
+ * eliminar productos o sucursales y cuando una venta cambia el stock.
+ */
+@Service
+public class CatalogoCacheService {
+
+    private final long ttlMs;
+    private final Map<Clave, Entrada> entradas;
+    // Cada invalidación sube la generación: una carga que empezó antes no se guarda
+    private final AtomicLong generacion = new AtomicLong();
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    public CatalogoCacheService(@Value("${catalogo.cache.ttl-ms:30000}") long ttlMs,
+            @Value("${catalogo.cache.max-entradas:100}") int maxEntradas) {
+        this.ttlMs = ttlMs;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Clave, Entrada> eldest) {
+                return size() > maxEntradas;
+            }
+        };
+    }
+
+    public Pagina<ProductoResponseDTO> obtener(String sucursalId, String after, int limite,
+            Supplier<Pagina<ProductoResponseDTO>> cargar) {
+        Clave clave = new Clave(sucursalId, after, limite);
+        synchronized (entradas) {
+            Entrada e = entradas.get(clave);
+            if (e != null && e.vence() > System.currentTimeMillis()) {
+                aciertos.increment();
+                return e.pagina();
+            }
+        }
+        fallos.increment();
+
+        // La carga va fuera del lock: lecturas de otras sucursales no esperan a Mongo
+        long gen = generacion.get();
+        Pagina<ProductoResponseDTO> pagina = cargar.get();
+        synchronized (entradas) {
+            if (generacion.get() == gen) {
+                entradas.put(clave, new Entrada(pagina, System.currentTimeMillis() + ttlMs));
+            }
+        }
+        return pagina;
+    }
+
+    public void invalidarSucursal(String sucursalId) {
+        synchronized (entradas) {
+            generacion.incrementAndGet();
+            // Las páginas de "todas" también incluyen la sucursal
+            entradas.keySet().removeIf(k -> k.sucursalId() == null || k.sucursalId().equals(sucursalId));
+        }
+    }
+
+    // 🔹 Productos cuyo stock cambió (ventas): se invalidan sus sucursales
+    public void invalidarProductos(Collection<Producto> productos) {
+        Set<String> sucursales = new HashSet<>();
+        for (Producto p : productos) {
+            if (p.getSucursal() != null) {
+                sucursales.add(p.getSucursal().getId());
+            }
+        }
+        invalidarSucursales(sucursales);
+    }
+
+    public void invalidarSucursales(Collection<String> sucursales) {
+        synchronized (entradas) {
+            generacion.incrementAndGet();
+            entradas.keySet().removeIf(k -> k.sucursalId() == null || sucursales.contains(k.sucursalId()));
+        }
+    }
+
+    public void invalidarTodo() {
+        synchronized (entradas) {
+            generacion.incrementAndGet();
+            entradas.clear();
+        }
+    }
+
+    public Map<String, Object> estadisticas() {
+        long a = aciertos.sum();
+        long f = fallos.sum();
+        int tamano;
+        synchronized (entradas) {
+            tamano = entradas.size();
+        }
+        return Map.of(
+                "aciertos", a,
+                "fallos", f,
+                "tasaAciertos", a + f == 0 ? 0.0 : (double) a / (a + f),
+                "entradas", tamano);
+    }
+
+    private record Clave(String sucursalId, String after, int limite) {
+    }
+
+    private record Entrada(Pagina<ProductoResponseDTO> pagina, long vence) {
+    }
+}
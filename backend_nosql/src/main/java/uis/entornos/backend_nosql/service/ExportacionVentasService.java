@@ -0,0 +1,144 @@
+package uis.entornos.backend_nosql.service;
+
+import org.springframework.stereotype.Service;
+import uis.entornos.backend_nosql.model.DetalleVenta;
+import uis.entornos.backend_nosql.model.Venta;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de ventas a CSV para contabilidad.
+ *
+ * Las ventas se leen con el mismo cursor por lotes de /api/ventas/stream y cada fila
+ * se escribe apenas se convierte: la memoria no depende del tamaño del rango.
+ */
+@Service
+public class ExportacionVentasService {
+
+    // Cada cuántas filas se vacía el buffer hacia el cliente
+    private static final int FLUSH_CADA = 500;
+
+    private static final String ENCABEZADO_VENTAS =
+            "ventaId,fecha,sucursalId,sucursal,empleadoId,empleado,clienteId,cliente,unidades,total";
+    private static final String ENCABEZADO_DETALLES =
+            "ventaId,fecha,sucursalId,sucursal,empleadoId,empleado,clienteId,cliente,productoId,producto,cantidad,subtotal";
+
+    private final VentaService ventaService;
+
+    public ExportacionVentasService(VentaService ventaService) {
+        this.ventaService = ventaService;
+    }
+
+    /**
+     * Escribe el CSV en {@code out}: una fila por venta o, con {@code porDetalle},
+     * una fila por línea de la venta. No cierra {@code out}.
+     */
+    public void escribirCsv(String sucursalId, LocalDate fechaInicio, LocalDate fechaFin, boolean porDetalle,
+            OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // BOM para que Excel reconozca UTF-8 (tildes en nombres)
+        csv.write('\uFEFF');
+        csv.write(porDetalle ? ENCABEZADO_DETALLES : ENCABEZADO_VENTAS);
+        csv.write('\n');
+
+        int filas = 0;
+        try (Stream<Venta> ventas = ventaService.streamFiltradas(sucursalId, fechaInicio, fechaFin)) {
+            Iterator<Venta> it = ventas.iterator();
+            while (it.hasNext()) {
+                Venta v = it.next();
+                if (porDetalle) {
+                    if (v.getDetalles() == null) {
+                        continue;
+                    }
+                    for (DetalleVenta d : v.getDetalles()) {
+                        escribirVenta(csv, v);
+                        campo(csv, d.getProducto() != null ? d.getProducto().getId() : null);
+                        campo(csv, d.getProducto() != null ? d.getProducto().getNombre() : null);
+                        campo(csv, d.getCantidad());
+                        ultimo(csv, d.getSubtotal());
+                        filas++;
+                    }
+                } else {
+                    escribirVenta(csv, v);
+                    campo(csv, unidades(v));
+                    ultimo(csv, v.getTotal());
+                    filas++;
+                }
+                if (filas >= FLUSH_CADA) {
+                    csv.flush();
+                    filas = 0;
+                }
+            }
+        }
+        csv.flush();
+    }
+
+    private static void escribirVenta(Writer csv, Venta v) throws IOException {
+        campo(csv, v.getId());
+        campo(csv, v.getFecha());
+        campo(csv, v.getSucursal() != null ? v.getSucursal().getId() : null);
+        campo(csv, v.getSucursal() != null ? v.getSucursal().getNombre() : null);
+        campo(csv, v.getEmpleado() != null ? v.getEmpleado().getId() : null);
+        campo(csv, v.getEmpleado() != null ? v.getEmpleado().getNombre() : null);
+        campo(csv, v.getCliente() != null ? v.getCliente().getId() : null);
+        campo(csv, v.getCliente() != null ? v.getCliente().getNombre() : null);
+    }
+
+    private static long unidades(Venta v) {
+        long unidades = 0;
+        if (v.getDetalles() != null) {
+            for (DetalleVenta d : v.getDetalles()) {
+                if (d.getCantidad() != null) {
+                    unidades += d.getCantidad();
+                }
+            }
+        }
+        return unidades;
+    }
+
+    private static void campo(Writer csv, Object valor) throws IOException {
+        escapar(csv, valor);
+        csv.write(',');
+    }
+
+    private static void ultimo(Writer csv, Object valor) throws IOException {
+        escapar(csv, valor);
+        csv.write('\n');
+    }
+
+    // RFC 4180: entre comillas si el texto tiene separador, comillas o saltos de línea
+    private static void escapar(Writer csv, Object valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        String texto = valor instanceof BigDecimal bd ? bd.toPlainString() : valor.toString();
+        // Nombres que Excel/LibreOffice tomarían como fórmula: se anteponen con ' (los números no)
+        if (!(valor instanceof Number) && esFormula(texto)) {
+            texto = "'" + texto;
+        }
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            csv.write(texto);
+            return;
+        }
+        csv.write('"');
+        csv.write(texto.replace("\"", "\"\""));
+        csv.write('"');
+    }
+
+    private static boolean esFormula(String texto) {
+        if (texto.isEmpty()) {
+            return false;
+        }
+        char c = texto.charAt(0);
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+}
@@ -0,0 +1,111 @@
+package uis.entornos.backend_nosql.service;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import uis.entornos.backend_nosql.model.Empleado;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Índices únicos de empleados.usuario y empleados.email, que usa el login ($or por
+ * cualquiera de los dos). No se declaran con @Indexed porque la creación automática
+ * hace fallar el arranque si los datos tienen repetidos.
+ *
+ * Al arrancar: los valores en blanco se quitan del documento (un "" no es un usuario y
+ * contaría como repetido), se reemplaza el índice sparse anterior y se crea uno parcial
+ * que solo cubre textos no vacíos. Si aun así hay repetidos, se avisa en el log con los
+ * valores a corregir y la aplicación arranca igual: el login sigue funcionando, sin índice.
+ */
+@Service
+public class IndicesEmpleadoService {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicesEmpleadoService.class);
+
+    private static final List<String> CAMPOS = List.of("usuario", "email");
+
+    private final MongoTemplate mongoTemplate;
+
+    public IndicesEmpleadoService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void asegurarIndices() {
+        for (String campo : CAMPOS) {
+            try {
+                asegurarIndice(campo);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo crear el índice único de empleados.{}: {}", campo, e.getMessage());
+            }
+        }
+    }
+
+    private void asegurarIndice(String campo) {
+        MongoCollection<Document> empleados = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Empleado.class));
+
+        long blancos = empleados.updateMany(Filters.regex(campo, "^\\s*$"), Updates.unset(campo)).getModifiedCount();
+        if (blancos > 0) {
+            log.info("Empleados con {} en blanco: {} (se quitó el campo)", campo, blancos);
+        }
+
+        String nombre = campo + "_unico_idx";
+        boolean existe = false;
+        for (Document indice : empleados.listIndexes()) {
+            // El índice sparse anterior (mismo campo, otro nombre) se reemplaza
+            Document clave = indice.get("key", Document.class);
+            if (nombre.equals(indice.getString("name"))) {
+                existe = true;
+            } else if (clave.size() == 1 && clave.containsKey(campo)) {
+                empleados.dropIndex(indice.getString("name"));
+            }
+        }
+        if (existe) {
+            return;
+        }
+
+        try {
+            empleados.createIndex(Indexes.ascending(campo), new IndexOptions()
+                    .name(nombre)
+                    .unique(true)
+                    .partialFilterExpression(soloTexto(campo)));
+        } catch (MongoException e) {
+            if (e.getCode() != 11000) {
+                throw e;
+            }
+            log.warn("Hay empleados con el mismo {}; corríjalos para crear el índice único: {}", campo,
+                    repetidos(empleados, campo));
+        }
+    }
+
+    // Solo textos no vacíos: los documentos sin el campo (o con null) no entran al índice
+    private static Bson soloTexto(String campo) {
+        return Filters.and(Filters.type(campo, "string"), Filters.gt(campo, ""));
+    }
+
+    private static List<String> repetidos(MongoCollection<Document> empleados, String campo) {
+        List<String> valores = new ArrayList<>();
+        for (Document d : empleados.aggregate(List.of(
+                Aggregates.match(soloTexto(campo)),
+                Aggregates.group("$" + campo, Accumulators.sum("cantidad", 1)),
+                Aggregates.match(Filters.gt("cantidad", 1)),
+                Aggregates.limit(20)))) {
+            valores.add(d.getString("_id"));
+        }
+        return valores;
+    }
+}
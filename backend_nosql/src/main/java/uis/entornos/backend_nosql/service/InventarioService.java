@@ -0,0 +1,366 @@
+package uis.entornos.backend_nosql.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uis.entornos.backend_nosql.model.DetalleVenta;
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.model.Venta;
+import uis.entornos.backend_nosql.repository.Contadores;
+import uis.entornos.backend_nosql.repository.ProductoRepository;
+import uis.entornos.backend_nosql.repository.VentaRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reserva de inventario en memoria para productos muy vendidos.
+ *
+ * Cada producto tiene un contador de stock disponible (AtomicInteger, sin locks)
+ * que se descuenta al registrar la venta. Los descuentos se acumulan y se vuelcan
+ * a "productos" cada {@code inventario.reservas.volcado-ms} con un único bulk de $inc,
+ * así una venta no escribe el documento del producto.
+ *
+ * Recuperación: cada venta se guarda con inventarioPendiente=true. Al volcar, primero
+ * se asigna a las ventas un número de lote, luego se aplica el lote a los productos
+ * (cada producto recuerda el último lote aplicado) y por último se cierran las ventas.
+ * Si el proceso cae en cualquier punto, al arrancar se reaplican las ventas pendientes
+ * sin descontar dos veces.
+ *
+ * Los contadores viven en esta JVM: el modo solo es correcto con una única instancia
+ * escribiendo ventas, por eso está desactivado por defecto.
+ */
+@Service
+public class InventarioService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventarioService.class);
+
+    private static final String LOTES = "inventario_lotes";
+
+    private final ProductoRepository productoRepo;
+    private final VentaRepository ventaRepo;
+    private final VersionesService versiones;
+    private final CatalogoCacheService catalogo;
+    private final Contadores contadores;
+    private final boolean habilitado;
+
+    // productoId -> stock disponible en memoria (stock en Mongo menos lo reservado sin volcar).
+    // El contador de un producto no se reemplaza mientras exista: una reserva en curso
+    // puede tenerlo en la mano, y lo que descuente de un contador descartado se perdería
+    private final Map<String, Contador> disponibles = new ConcurrentHashMap<>();
+    // productoId -> unidades reservadas que aún no están en Mongo
+    private final Map<String, AtomicInteger> sinVolcar = new ConcurrentHashMap<>();
+    // Ventas confirmadas pendientes de volcar
+    private final Queue<Movimiento> cola = new ConcurrentLinkedQueue<>();
+
+    // Lock (no synchronized) porque dentro se escribe en Mongo: con hilos virtuales
+    // un synchronized con E/S bloquearía también el hilo portador
+    private final ReentrantLock lock = new ReentrantLock();
+    private Lote loteFallido;
+    private boolean recuperado;
+
+    public InventarioService(ProductoRepository productoRepo, VentaRepository ventaRepo, VersionesService versiones,
+            CatalogoCacheService catalogo, Contadores contadores,
+            @Value("${inventario.reservas.habilitado:false}") boolean habilitado) {
+        this.productoRepo = productoRepo;
+        this.ventaRepo = ventaRepo;
+        this.versiones = versiones;
+        this.catalogo = catalogo;
+        this.contadores = contadores;
+        this.habilitado = habilitado;
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Reserva todas las cantidades (productoId -> cantidad) o ninguna.
+     *
+     * @return el id del primer producto sin stock suficiente, o vacío si se reservó todo
+     */
+    public Optional<String> reservar(Map<String, Integer> cantidades) {
+        if (!cantidades.keySet().stream().allMatch(disponibles::containsKey)) {
+            cargarFaltantes(cantidades.keySet());
+        }
+
+        // Se anota como "sin volcar" antes de descontar: el volcado lo resta al aplicar el lote
+        cantidades.forEach((id, cantidad) ->
+                sinVolcar.computeIfAbsent(id, k -> new AtomicInteger()).addAndGet(cantidad));
+
+        Map<AtomicInteger, Integer> reservadas = new HashMap<>();
+        for (Map.Entry<String, Integer> linea : cantidades.entrySet()) {
+            Contador contador = disponibles.get(linea.getKey());
+            AtomicInteger disponible = contador != null ? contador.disponible : null;
+            if (disponible == null || !descontar(disponible, linea.getValue())) {
+                reservadas.forEach(AtomicInteger::addAndGet);
+                cantidades.forEach((id, cantidad) -> sinVolcar.get(id).addAndGet(-cantidad));
+                return Optional.of(linea.getKey());
+            }
+            reservadas.put(disponible, linea.getValue());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Devuelve una reserva cuya venta no llegó a guardarse.
+     */
+    public void liberar(Map<String, Integer> cantidades) {
+        cantidades.forEach((id, cantidad) -> {
+            sinVolcar.get(id).addAndGet(-cantidad);
+            Contador contador = disponibles.get(id);
+            if (contador != null) {
+                contador.disponible.addAndGet(cantidad);
+            }
+        });
+    }
+
+    /**
+     * La venta ya está guardada (con inventarioPendiente=true): su descuento entra al próximo volcado.
+     * Los productos indican qué sucursales del catálogo invalidar cuando se vuelque.
+     */
+    public void confirmar(String ventaId, Map<String, Integer> cantidades, Collection<Producto> productos) {
+        Set<String> sucursales = new HashSet<>();
+        for (Producto p : productos) {
+            if (p.getSucursal() != null) {
+                sucursales.add(p.getSucursal().getId());
+            }
+        }
+        cola.add(new Movimiento(ventaId, cantidades, sucursales));
+    }
+
+    /**
+     * El stock del producto cambió por fuera de las ventas (crear/actualizar/eliminar):
+     * se vuelca lo pendiente y el contador se corrige con la diferencia entre el stock
+     * que hay ahora en Mongo y el último conocido. No se reemplaza el contador: las
+     * reservas que estén descontando en ese momento siguen contando.
+     */
+    public void invalidar(String productoId) {
+        if (!habilitado) {
+            return;
+        }
+        lock.lock();
+        try {
+            volcar();
+            Contador contador = disponibles.get(productoId);
+            if (contador == null) {
+                return;
+            }
+            Integer stock = productoRepo.leerStock(List.of(productoId)).get(productoId);
+            if (stock == null) {
+                // Producto eliminado: sin contador, las reservas siguientes lo rechazan
+                disponibles.remove(productoId);
+                return;
+            }
+            contador.disponible.addAndGet(stock - contador.enMongo);
+            contador.enMongo = stock;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventario.reservas.volcado-ms:200}")
+    public void volcar() {
+        if (!habilitado) {
+            return;
+        }
+        lock.lock();
+        try {
+            // Un lote que falló se reintenta con el mismo número antes de armar otro
+            if (loteFallido != null && !aplicar(loteFallido)) {
+                return;
+            }
+            loteFallido = null;
+            if (cola.isEmpty()) {
+                return;
+            }
+            // El número se pide antes de sacar ventas de la cola: si Mongo falla, quedan para el próximo intento
+            long numero;
+            try {
+                numero = siguienteLote();
+            } catch (RuntimeException e) {
+                log.warn("No se pudo obtener un número de lote de inventario: {}", e.getMessage());
+                return;
+            }
+
+            List<String> ventaIds = new ArrayList<>();
+            Map<String, Integer> descuentos = new LinkedHashMap<>();
+            Set<String> sucursales = new HashSet<>();
+            Movimiento m;
+            while ((m = cola.poll()) != null) {
+                ventaIds.add(m.ventaId());
+                m.cantidades().forEach((id, cantidad) -> descuentos.merge(id, cantidad, Integer::sum));
+                sucursales.addAll(m.sucursales());
+            }
+
+            Lote lote = new Lote(numero, ventaIds, descuentos, sucursales);
+            if (!aplicar(lote)) {
+                loteFallido = lote;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean aplicar(Lote lote) {
+        try {
+            ventaRepo.asignarLoteInventario(lote.ventaIds(), lote.numero());
+            productoRepo.aplicarLoteInventario(lote.numero(), lote.descuentos());
+            ventaRepo.cerrarLoteInventario(lote.numero());
+        } catch (RuntimeException e) {
+            // Las ventas siguen marcadas como pendientes en Mongo, no se pierde nada
+            log.warn("No se pudo volcar el lote de inventario {}: {}", lote.numero(), e.getMessage());
+            return false;
+        }
+        lote.descuentos().forEach((id, cantidad) -> {
+            sinVolcar.get(id).addAndGet(-cantidad);
+            // El descuento ya está en Mongo: no es un cambio externo para invalidar
+            Contador contador = disponibles.get(id);
+            if (contador != null) {
+                contador.enMongo -= cantidad;
+            }
+        });
+        // Recién ahora cambia el stock guardado en "productos": un catálogo armado entre
+        // la venta y el volcado todavía tiene el stock anterior
+        catalogo.invalidarSucursales(lote.sucursales());
+        versiones.tocar(VersionesService.PRODUCTOS);
+        return true;
+    }
+
+    /**
+     * Al arrancar, reaplica las ventas que quedaron sin volcar (caída del proceso).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recuperar() {
+        lock.lock();
+        try {
+            if (!habilitado || recuperado) {
+                return;
+            }
+            Map<Long, Map<String, Integer>> porLote = new LinkedHashMap<>();
+            List<String> sinLote = new ArrayList<>();
+            Map<String, Integer> descuentosSinLote = new HashMap<>();
+
+            for (Venta v : ventaRepo.listarInventarioPendiente()) {
+                Map<String, Integer> destino = v.getLoteInventario() != null
+                        ? porLote.computeIfAbsent(v.getLoteInventario(), k -> new HashMap<>())
+                        : descuentosSinLote;
+                if (v.getLoteInventario() == null) {
+                    sinLote.add(v.getId());
+                }
+                if (v.getDetalles() != null) {
+                    for (DetalleVenta d : v.getDetalles()) {
+                        if (d.getProducto() != null) {
+                            destino.merge(d.getProducto().getId(), d.getCantidad(), Integer::sum);
+                        }
+                    }
+                }
+            }
+
+            // Los lotes nuevos tienen que superar a todo lote ya usado (en productos o en
+            // ventas interrumpidas); también cubre los números de antes del contador
+            long usado = productoRepo.ultimoLoteInventario();
+            for (long lote : porLote.keySet()) {
+                usado = Math.max(usado, lote);
+            }
+            contadores.subirA(LOTES, usado);
+
+            // Lotes interrumpidos: los productos que ya lo tienen aplicado no se tocan
+            porLote.forEach((lote, descuentos) -> {
+                productoRepo.aplicarLoteInventario(lote, descuentos);
+                ventaRepo.cerrarLoteInventario(lote);
+            });
+            if (!sinLote.isEmpty()) {
+                long lote = siguienteLote();
+                ventaRepo.asignarLoteInventario(sinLote, lote);
+                productoRepo.aplicarLoteInventario(lote, descuentosSinLote);
+                ventaRepo.cerrarLoteInventario(lote);
+            }
+            if (!porLote.isEmpty() || !sinLote.isEmpty()) {
+                // Sin sucursales a mano: se descarta todo lo que se haya armado antes
+                catalogo.invalidarTodo();
+                versiones.tocar(VersionesService.PRODUCTOS);
+                log.info("Inventario recuperado: {} lotes interrumpidos, {} ventas sin volcar", porLote.size(), sinLote.size());
+            }
+            recuperado = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Los contadores se cargan desde Mongo la primera vez que se usa cada producto
+    private void cargarFaltantes(Iterable<String> ids) {
+        lock.lock();
+        try {
+            // Puede llegar una venta antes de ApplicationReadyEvent: no cargar contadores sin recuperar
+            recuperar();
+            List<String> faltantes = new ArrayList<>();
+            for (String id : ids) {
+                if (!disponibles.containsKey(id)) {
+                    faltantes.add(id);
+                }
+            }
+            if (faltantes.isEmpty()) {
+                return;
+            }
+            // computeIfAbsent: nunca se pisa un contador que ya esté en uso. Lo pendiente aquí
+            // es de ventas confirmadas de un producto que perdió su contador (eliminado y vuelto a crear)
+            productoRepo.leerStock(faltantes).forEach((id, stock) -> disponibles.computeIfAbsent(id, k -> {
+                AtomicInteger reservado = sinVolcar.get(id);
+                int pendiente = reservado != null ? reservado.get() : 0;
+                return new Contador(stock, stock - pendiente);
+            }));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean descontar(AtomicInteger disponible, int cantidad) {
+        int actual;
+        do {
+            actual = disponible.get();
+            if (actual < cantidad) {
+                return false;
+            }
+        } while (!disponible.compareAndSet(actual, actual - cantidad));
+        return true;
+    }
+
+    // Lotes crecientes también entre reinicios y aunque el reloj retroceda
+    private long siguienteLote() {
+        return contadores.incrementar(LOTES, 1);
+    }
+
+    private static final class Contador {
+        private final AtomicInteger disponible;
+        // Stock en "productos" según lo último leído y volcado; solo se toca con el lock
+        private int enMongo;
+
+        private Contador(int enMongo, int disponible) {
+            this.enMongo = enMongo;
+            this.disponible = new AtomicInteger(disponible);
+        }
+    }
+
+    private record Movimiento(String ventaId, Map<String, Integer> cantidades, Set<String> sucursales) {
+    }
+
+    private record Lote(long numero, List<String> ventaIds, Map<String, Integer> descuentos, Set<String> sucursales) {
+    }
+}
@@ -0,0 +1,164 @@
+package uis.entornos.backend_nosql.service;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import uis.entornos.backend_nosql.model.DetalleVenta;
+import uis.entornos.backend_nosql.model.Empleado;
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.model.Venta;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Convierte a Decimal128 los montos guardados como String (el formato por defecto de
+ * BigDecimal antes de anotar los campos) o como double: ventas.total,
+ * ventas.detalles[].subtotal, detalles_venta.subtotal, productos.precio y empleados.salario.
+ *
+ * Recorre cada colección por _id de a {@code montos.migracion.lote} documentos y escribe
+ * cada lote con un bulk write. Es idempotente: lo ya convertido no vuelve a coincidir.
+ * La lectura acepta ambos formatos, así que puede correr con la aplicación en uso.
+ */
+@Service
+public class MigracionMontosService {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracionMontosService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final int lote;
+    private final boolean alIniciar;
+
+    public MigracionMontosService(MongoTemplate mongoTemplate,
+            @Value("${montos.migracion.lote:1000}") int lote,
+            @Value("${montos.migracion.al-iniciar:false}") boolean alIniciar) {
+        this.mongoTemplate = mongoTemplate;
+        this.lote = lote;
+        this.alIniciar = alIniciar;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrarAlIniciar() {
+        if (!alIniciar) {
+            return;
+        }
+        try {
+            migrar();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo completar la migración de montos: {}", e.getMessage());
+        }
+    }
+
+    // 🔹 Colección -> documentos actualizados
+    public Map<String, Long> migrar() {
+        Map<String, Long> actualizados = new LinkedHashMap<>();
+        actualizados.put(coleccion(Venta.class), migrarVentas());
+        actualizados.put(coleccion(DetalleVenta.class), migrarCampo(coleccion(DetalleVenta.class), "subtotal"));
+        actualizados.put(coleccion(Producto.class), migrarCampo(coleccion(Producto.class), "precio"));
+        actualizados.put(coleccion(Empleado.class), migrarCampo(coleccion(Empleado.class), "salario"));
+        log.info("Migración de montos a Decimal128: {}", actualizados);
+        return actualizados;
+    }
+
+    private long migrarCampo(String coleccion, String campo) {
+        return recorrer(coleccion, sinConvertir(campo), List.of(campo), doc -> {
+            Decimal128 valor = aDecimal(doc.get(campo));
+            return valor != null ? Updates.set(campo, valor) : null;
+        });
+    }
+
+    // total en la raíz y subtotal dentro de cada detalle embebido
+    private long migrarVentas() {
+        Bson filtro = Filters.or(sinConvertir("total"), sinConvertir("detalles.subtotal"));
+        return recorrer(coleccion(Venta.class), filtro, List.of("total", "detalles.subtotal"), doc -> {
+            List<Bson> cambios = new ArrayList<>();
+            Decimal128 total = aDecimal(doc.get("total"));
+            if (total != null) {
+                cambios.add(Updates.set("total", total));
+            }
+            List<Document> detalles = doc.getList("detalles", Document.class, List.of());
+            for (int i = 0; i < detalles.size(); i++) {
+                Decimal128 subtotal = aDecimal(detalles.get(i).get("subtotal"));
+                if (subtotal != null) {
+                    cambios.add(Updates.set("detalles." + i + ".subtotal", subtotal));
+                }
+            }
+            return cambios.isEmpty() ? null : Updates.combine(cambios);
+        });
+    }
+
+    // Avanza por _id (no por "lo que falta convertir"): un valor que no se puede
+    // convertir se salta en lugar de volver a leerse para siempre
+    private long recorrer(String coleccion, Bson filtro, List<String> campos,
+            Function<Document, Bson> cambio) {
+        long actualizados = 0;
+        Object ultimoId = null;
+        while (true) {
+            Bson pagina = ultimoId == null ? filtro : Filters.and(filtro, Filters.gt("_id", ultimoId));
+            List<Document> docs = mongoTemplate.getCollection(coleccion)
+                    .find(pagina)
+                    .projection(Projections.include(campos))
+                    .sort(Sorts.ascending("_id"))
+                    .limit(lote)
+                    .into(new ArrayList<>());
+            if (docs.isEmpty()) {
+                return actualizados;
+            }
+
+            List<WriteModel<Document>> escrituras = new ArrayList<>();
+            for (Document doc : docs) {
+                Bson update = cambio.apply(doc);
+                if (update != null) {
+                    escrituras.add(new UpdateOneModel<>(Filters.eq("_id", doc.get("_id")), update));
+                } else {
+                    log.warn("Montos no convertibles en {} {}: {}", coleccion, doc.get("_id"), doc);
+                }
+            }
+            if (!escrituras.isEmpty()) {
+                actualizados += mongoTemplate.getCollection(coleccion).bulkWrite(escrituras).getModifiedCount();
+            }
+            ultimoId = docs.get(docs.size() - 1).get("_id");
+        }
+    }
+
+    private static Bson sinConvertir(String campo) {
+        return Filters.or(Filters.type(campo, "string"), Filters.type(campo, "double"));
+    }
+
+    // null si el valor no es un monto reconocible (o ya es Decimal128)
+    private static Decimal128 aDecimal(Object valor) {
+        try {
+            if (valor instanceof String s && !s.isBlank()) {
+                return new Decimal128(new BigDecimal(s.trim()));
+            }
+            if (valor instanceof Double d && !d.isNaN() && !d.isInfinite()) {
+                // toString da el decimal más corto que representa al double (0.1 y no 0.1000000000000000055…)
+                return new Decimal128(new BigDecimal(d.toString()));
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private String coleccion(Class<?> tipo) {
+        return mongoTemplate.getCollectionName(tipo);
+    }
+}
@@ -0,0 +1,283 @@
+package uis.entornos.backend_nosql.service;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import uis.entornos.backend_nosql.dto.ResumenVentasDTO;
+import uis.entornos.backend_nosql.model.Venta;
+import uis.entornos.backend_nosql.model.VentaDiaria;
+import uis.entornos.backend_nosql.repository.Contadores;
+import uis.entornos.backend_nosql.repository.VentaDiariaRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resúmenes diarios de ventas (colección "ventas_diarias").
+ * Las consultas de totales leen estos documentos en lugar de recorrer "ventas".
+ *
+ * reconstruir() no frena las ventas: las que abren su registro durante un recálculo de
+ * su día quedan fuera del recorrido de "ventas" y su $inc se guarda aparte hasta que los
+ * resúmenes recalculados reemplazan a los anteriores; recién ahí se aplica. El recálculo
+ * sí espera a las que ya estaban entre guardarse y sumarse a su resumen. Así ninguna
+ * venta se pierde ni se cuenta dos veces. La coordinación es de esta JVM: con varias
+ * instancias, reconstruir solo es exacto si las demás no registran ventas de ese rango
+ * mientras tanto.
+ */
+@Service
+public class VentaDiariaService {
+
+    private static final Logger log = LoggerFactory.getLogger(VentaDiariaService.class);
+
+    // Marca en "contadores" de que los resúmenes ya se armaron una vez desde "ventas"
+    private static final String CONTADOR = "ventas_diarias";
+    private static final String INICIALIZADO = "inicializado";
+
+    private final VentaDiariaRepository ventaDiariaRepo;
+    private final Contadores contadores;
+
+    // Lock (no synchronized): reconstruir espera adentro con await
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition cambio = lock.newCondition();
+    // Un recálculo a la vez (solo lo esperan otros recálculos, nunca las ventas)
+    private final ReentrantLock reconstrucciones = new ReentrantLock();
+    // Recálculo en curso, o null
+    private Reconstruccion actual;
+    // día -> ventas de ese día guardándose (entre abrirRegistro y cerrar)
+    private final Map<LocalDate, Integer> registrando = new HashMap<>();
+
+    public VentaDiariaService(VentaDiariaRepository ventaDiariaRepo, Contadores contadores) {
+        this.ventaDiariaRepo = ventaDiariaRepo;
+        this.contadores = contadores;
+    }
+
+    /**
+     * Encierra el guardado de las ventas y su registro en el resumen. No espera: si alguno
+     * de sus días se está reconstruyendo, la venta queda fuera de ese recálculo. Para eso
+     * se le asigna el id antes de guardarla.
+     */
+    public Registro abrirRegistro(Collection<Venta> ventas) {
+        for (Venta v : ventas) {
+            if (v.getId() == null) {
+                v.setId(new ObjectId().toHexString());
+            }
+        }
+        List<LocalDate> propios = ventas.stream()
+                .map(Venta::getFecha)
+                .filter(Objects::nonNull)
+                .map(LocalDateTime::toLocalDate)
+                .distinct()
+                .toList();
+        lock.lock();
+        try {
+            if (actual != null) {
+                for (Venta v : ventas) {
+                    if (v.getFecha() != null && actual.cubre(v.getFecha().toLocalDate())) {
+                        actual.excluidas.add(v.getId());
+                    }
+                }
+            }
+            propios.forEach(d -> registrando.merge(d, 1, Integer::sum));
+        } finally {
+            lock.unlock();
+        }
+        return () -> {
+            lock.lock();
+            try {
+                propios.forEach(d -> registrando.computeIfPresent(d, (k, n) -> n > 1 ? n - 1 : null));
+                cambio.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        };
+    }
+
+    // 🔹 Se llama después de guardar cada venta
+    public void registrar(Venta venta) {
+        if (postergar(List.of(venta)).isEmpty()) {
+            return;
+        }
+        try {
+            ventaDiariaRepo.acumular(venta);
+        } catch (RuntimeException e) {
+            // La venta ya está guardada; el resumen se corrige con reconstruir()
+            log.warn("No se pudo actualizar el resumen diario de la venta {}: {}", venta.getId(), e.getMessage());
+        }
+    }
+
+    // 🔹 Igual que registrar para un lote de ventas (un solo bulk write)
+    public void registrarLote(Collection<Venta> ventas) {
+        acumularLote(postergar(ventas));
+    }
+
+    private void acumularLote(Collection<Venta> ventas) {
+        if (ventas.isEmpty()) {
+            return;
+        }
+        try {
+            ventaDiariaRepo.acumularLote(ventas);
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron actualizar los resúmenes diarios de {} ventas: {}", ventas.size(), e.getMessage());
+        }
+    }
+
+    // Las ventas excluidas del recálculo en curso se guardan para después; devuelve las demás
+    private List<Venta> postergar(Collection<Venta> ventas) {
+        lock.lock();
+        try {
+            if (actual == null) {
+                return new ArrayList<>(ventas);
+            }
+            List<Venta> ahora = new ArrayList<>();
+            for (Venta v : ventas) {
+                if (actual.excluidas.contains(v.getId())) {
+                    actual.postergadas.add(v);
+                } else {
+                    ahora.add(v);
+                }
+            }
+            return ahora;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 🔹 Backfill: recalcula el rango completo desde "ventas" y reemplaza los resúmenes
+    public int reconstruir(LocalDate desde, LocalDate hasta) {
+        reconstrucciones.lock();
+        try {
+            return reconstruirSolo(desde, hasta);
+        } finally {
+            reconstrucciones.unlock();
+        }
+    }
+
+    private int reconstruirSolo(LocalDate desde, LocalDate hasta) {
+        Reconstruccion r = new Reconstruccion(desde, hasta);
+        lock.lock();
+        try {
+            // Desde acá las ventas nuevas del rango quedan fuera; se espera a las que ya empezaron
+            actual = r;
+            while (registrando.keySet().stream().anyMatch(r::cubre)) {
+                cambio.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+        List<Venta> postergadas;
+        try {
+            Collection<VentaDiaria> resumenes = ventaDiariaRepo.calcularDesdeVentas(desde, hasta, r.excluidas);
+            // Reemplazo por _id y después se borran los días que quedaron sin ventas:
+            // si algo falla a mitad, el rango nunca queda vacío
+            ventaDiariaRepo.saveAll(resumenes);
+            ventaDiariaRepo.deleteByDiaRangeExcept(desde, hasta, resumenes.stream().map(VentaDiaria::getId).toList());
+            return resumenes.size();
+        } finally {
+            lock.lock();
+            try {
+                // Las ventas que registren desde ahora suman directo sobre los resúmenes nuevos
+                actual = null;
+                postergadas = r.postergadas;
+            } finally {
+                lock.unlock();
+            }
+            acumularLote(postergadas);
+        }
+    }
+
+    /**
+     * Una sola vez por base: arma los resúmenes de las ventas que ya existían antes de que
+     * hubiera "ventas_diarias" (si no, los totales de esos días se leen en 0). Va mes a mes
+     * para no tener todo el historial en memoria.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarHistorial() {
+        try {
+            if (contadores.leer(CONTADOR, INICIALIZADO) > 0) {
+                return;
+            }
+            Optional<LocalDate> primero = ventaDiariaRepo.primerDiaConVentas();
+            Optional<LocalDate> ultimo = ventaDiariaRepo.ultimoDiaConVentas();
+            if (primero.isPresent() && ultimo.isPresent()) {
+                int resumenes = 0;
+                for (LocalDate desde = primero.get(); !desde.isAfter(ultimo.get()); desde = desde.plusMonths(1).withDayOfMonth(1)) {
+                    LocalDate hasta = desde.withDayOfMonth(desde.lengthOfMonth());
+                    resumenes += reconstruir(desde, hasta.isAfter(ultimo.get()) ? ultimo.get() : hasta);
+                }
+                log.info("Resúmenes diarios armados desde el historial: {} ({} a {})", resumenes, primero.get(), ultimo.get());
+            }
+            contadores.subirA(CONTADOR, INICIALIZADO, 1);
+        } catch (RuntimeException e) {
+            // Se reintenta en el próximo arranque; mientras tanto se puede llamar /diarias/reconstruir
+            log.warn("No se pudieron armar los resúmenes diarios del historial: {}", e.getMessage());
+        }
+    }
+
+    public List<VentaDiaria> listar(LocalDate desde, LocalDate hasta, String sucursalId) {
+        if (sucursalId != null && !sucursalId.isEmpty()) {
+            return ventaDiariaRepo.findByDiaRangeAndSucursalId(desde, hasta, sucursalId);
+        }
+        return ventaDiariaRepo.findByDiaRange(desde, hasta);
+    }
+
+    public BigDecimal totalDelDia(LocalDate dia) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (VentaDiaria r : ventaDiariaRepo.findByDiaRange(dia, dia)) {
+            total = total.add(r.getTotal());
+        }
+        return total;
+    }
+
+    public List<ResumenVentasDTO> resumenMensual(LocalDate desde, LocalDate hasta, String sucursalId) {
+        Map<YearMonth, ResumenVentasDTO> porMes = new LinkedHashMap<>();
+        for (VentaDiaria r : listar(desde, hasta, sucursalId)) {
+            YearMonth mes = YearMonth.from(r.getDia());
+            ResumenVentasDTO dto = porMes.computeIfAbsent(mes, m -> new ResumenVentasDTO(m.toString()));
+            dto.setCantidadVentas(dto.getCantidadVentas() + r.getCantidadVentas());
+            dto.setUnidades(dto.getUnidades() + r.getUnidades());
+            dto.setTotal(dto.getTotal().add(r.getTotal()));
+        }
+        return new ArrayList<>(porMes.values());
+    }
+
+    private static final class Reconstruccion {
+        private final LocalDate desde;
+        private final LocalDate hasta;
+        // Ids de ventas del rango que abrieron su registro durante el recálculo. Se anotan
+        // antes de guardarse, así que el recorrido de "ventas" ya las ve al encontrarlas
+        private final Set<String> excluidas = ConcurrentHashMap.newKeySet();
+        // Las excluidas que ya se guardaron: se suman cuando terminan los reemplazos (con el lock)
+        private final List<Venta> postergadas = new ArrayList<>();
+
+        private Reconstruccion(LocalDate desde, LocalDate hasta) {
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        private boolean cubre(LocalDate dia) {
+            return !dia.isBefore(desde) && !dia.isAfter(hasta);
+        }
+    }
+
+    // Se cierra en un finally cuando la venta ya está en su resumen (o falló)
+    public interface Registro {
+        void cerrar();
+    }
+}
@@ -1,39 +1,124 @@
 package uis.entornos.backend_nosql.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import uis.entornos.backend_nosql.repository.*;
 import uis.entornos.backend_nosql.model.*;
+import uis.entornos.backend_nosql.dto.ResultadoVentaDTO;
 import uis.entornos.backend_nosql.dto.VentaDTO;
 
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 public class VentaService {
 
+    // Máximo de ventas por llamada a registrarLote
+    private static final int MAX_LOTE = 5000;
+
+    // Margen para cajas con el reloj algo adelantado respecto del servidor
+    private static final Duration TOLERANCIA_RELOJ = Duration.ofMinutes(5);
+
     private final VentaRepository ventaRepo;
+    private final ReactiveVentaRepository ventaReactivaRepo;
     private final ProductoRepository productoRepo;
     private final ClienteRepository clienteRepo;
     private final EmpleadoRepository empleadoRepo;
     private final SucursalRepository sucursalRepo;
+    private final InventarioService inventario;
+    private final VentaDiariaService ventaDiaria;
+    private final VentasEnVivoService enVivo;
+    private final CatalogoCacheService catalogo;
+    private final VersionesService versiones;
+    private final MeterRegistry meterRegistry;
+    private final int antiguedadMaximaDias;
 
     public VentaService(
             VentaRepository ventaRepo,
+            ReactiveVentaRepository ventaReactivaRepo,
             ProductoRepository productoRepo,
             ClienteRepository clienteRepo,
             EmpleadoRepository empleadoRepo,
-            SucursalRepository sucursalRepo) {
+            SucursalRepository sucursalRepo,
+            InventarioService inventario,
+            VentaDiariaService ventaDiaria,
+            VentasEnVivoService enVivo,
+            CatalogoCacheService catalogo,
+            VersionesService versiones,
+            MeterRegistry meterRegistry,
+            @Value("${ventas.batch.fecha-max-dias:30}") int antiguedadMaximaDias) {
         this.ventaRepo = ventaRepo;
+        this.ventaReactivaRepo = ventaReactivaRepo;
         this.productoRepo = productoRepo;
         this.clienteRepo = clienteRepo;
         this.empleadoRepo = empleadoRepo;
         this.sucursalRepo = sucursalRepo;
+        this.inventario = inventario;
+        this.ventaDiaria = ventaDiaria;
+        this.enVivo = enVivo;
+        this.catalogo = catalogo;
+        this.versiones = versiones;
+        this.meterRegistry = meterRegistry;
+        this.antiguedadMaximaDias = antiguedadMaximaDias;
     }
 
+    // 📊 Tiempo de registrarVenta por tamaño del ticket ("ventas.registrar")
     public Venta registrarVenta(VentaDTO dto) {
+        Timer.Sample inicio = Timer.start(meterRegistry);
+        String resultado = "error";
+        try {
+            Venta venta = registrar(dto);
+            resultado = "ok";
+            return venta;
+        } finally {
+            inicio.stop(Timer.builder("ventas.registrar")
+                    .description("Tiempo de registro de una venta")
+                    .tag("items", rangoItems(dto.getItems() != null ? dto.getItems().size() : 0))
+                    .tag("resultado", resultado)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    // Rangos fijos para no crear una serie por cada cantidad de ítems
+    private static String rangoItems(int items) {
+        if (items <= 1) {
+            return "1";
+        }
+        if (items <= 5) {
+            return "2-5";
+        }
+        if (items <= 20) {
+            return "6-20";
+        }
+        return "21+";
+    }
+
+    private Venta registrar(VentaDTO dto) {
+        // La venta en línea lleva la hora del servidor; solo /batch reproduce la de la caja
+        if (dto.getFecha() != null) {
+            throw new RuntimeException("La fecha solo se acepta en /api/ventas/batch");
+        }
         Cliente cliente = clienteRepo.findById(dto.getClienteId())
                 .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
         Empleado empleado = empleadoRepo.findById(String.valueOf(dto.getEmpleadoId()))
@@ -46,24 +131,287 @@ public class VentaService {
         venta.setEmpleado(empleado);
         venta.setSucursal(sucursal);
 
-        List<DetalleVenta> detalles = new ArrayList<>();
-        BigDecimal total = BigDecimal.ZERO;
+        Map<String, Integer> cantidades = agruparItems(dto);
+
+        // Una sola lectura para todos los productos del ticket (equivale a findAllById,
+        // con la sucursal de cada producto resuelta en el mismo bloque)
+        Map<String, Producto> productos = new HashMap<>();
+        for (Producto p : productoRepo.listarPorIds(cantidades.keySet())) {
+            productos.put(p.getId(), p);
+        }
+
+        validarStock(cantidades, productos, Producto::getStock);
+        armarDetalles(venta, cantidades, productos);
+
+        if (inventario.isHabilitado()) {
+            return registrarConReserva(venta, cantidades, productos);
+        }
+
+        // Descuento atómico en un solo bulk write ($inc condicionado a stock >= cantidad);
+        // si otra caja vendió antes, se revierte todo y la venta se rechaza
+        productoRepo.descontarStock(cantidades).ifPresent(id -> stockInsuficiente(id, productos));
+        descontarEnMemoria(cantidades, productos);
+
+        // Del guardado al resumen diario sin que un reconstruir() del día quede en medio
+        VentaDiariaService.Registro registro = ventaDiaria.abrirRegistro(List.of(venta));
+        try {
+            Venta guardada;
+            try {
+                guardada = ventaRepo.save(venta);
+            } catch (RuntimeException e) {
+                // La venta no quedó registrada: se devuelve el stock descontado
+                productoRepo.reponerStock(cantidades);
+                stockCambiado(productos.values());
+                throw e;
+            }
+            stockCambiado(productos.values());
+            // Antes del resumen: si los contadores en vivo se inicializan ahora, no la cuentan dos veces
+            enVivo.registrar(guardada);
+            ventaDiaria.registrar(guardada);
+            return guardada;
+        } finally {
+            registro.cerrar();
+        }
+    }
+
+    // 🔹 Modo reserva en memoria: el stock se descuenta en InventarioService y se
+    // vuelca a Mongo por lotes; la venta queda marcada hasta que su lote se aplique
+    private Venta registrarConReserva(Venta venta, Map<String, Integer> cantidades, Map<String, Producto> productos) {
+        inventario.reservar(cantidades).ifPresent(id -> stockInsuficiente(id, productos));
+        descontarEnMemoria(cantidades, productos);
+
+        venta.setInventarioPendiente(true);
+        VentaDiariaService.Registro registro = ventaDiaria.abrirRegistro(List.of(venta));
+        try {
+            Venta guardada;
+            try {
+                guardada = ventaRepo.save(venta);
+            } catch (RuntimeException e) {
+                inventario.liberar(cantidades);
+                throw e;
+            }
+            inventario.confirmar(guardada.getId(), cantidades, productos.values());
+            stockCambiado(productos.values());
+            // Antes del resumen: si los contadores en vivo se inicializan ahora, no la cuentan dos veces
+            enVivo.registrar(guardada);
+            ventaDiaria.registrar(guardada);
+            return guardada;
+        } finally {
+            registro.cerrar();
+        }
+    }
+
+    // 🔹 Sincronización de cajas que estuvieron sin conexión: todo el lote con un $in por
+    // colección, un único descuento de stock y un insertMany. Cada venta se valida por
+    // separado; las rechazadas no impiden registrar las demás.
+    public List<ResultadoVentaDTO> registrarLote(List<VentaDTO> dtos) {
+        if (dtos.size() > MAX_LOTE) {
+            throw new RuntimeException("El lote supera el máximo de " + MAX_LOTE + " ventas");
+        }
+        Timer.Sample inicio = Timer.start(meterRegistry);
+        try {
+            return registrarTodas(dtos);
+        } finally {
+            inicio.stop(Timer.builder("ventas.registrar.lote")
+                    .description("Tiempo de registro de un lote de ventas")
+                    .register(meterRegistry));
+        }
+    }
+
+    private List<ResultadoVentaDTO> registrarTodas(List<VentaDTO> dtos) {
+        ResultadoVentaDTO[] resultados = new ResultadoVentaDTO[dtos.size()];
+
+        Set<String> clienteIds = new HashSet<>();
+        Set<String> empleadoIds = new HashSet<>();
+        Set<String> sucursalIds = new HashSet<>();
+        Set<String> productoIds = new HashSet<>();
+        for (VentaDTO dto : dtos) {
+            agregarSiHay(clienteIds, dto.getClienteId());
+            agregarSiHay(empleadoIds, dto.getEmpleadoId());
+            agregarSiHay(sucursalIds, dto.getSucursalId());
+            if (dto.getItems() != null) {
+                dto.getItems().forEach(i -> agregarSiHay(productoIds, i.getProductoId()));
+            }
+        }
+
+        // Un $in por colección para todo el lote
+        Map<String, Cliente> clientes = porId(clienteRepo.findAllById(clienteIds), Cliente::getId);
+        Map<String, Empleado> empleados = porId(empleadoRepo.listarPorIds(empleadoIds), Empleado::getId);
+        Map<String, Sucursal> sucursales = porId(sucursalRepo.findAllById(sucursalIds), Sucursal::getId);
+        Map<String, Producto> productos = porId(productoRepo.listarPorIds(productoIds), Producto::getId);
+
+        // Las ventas se arman en orden descontando de una copia del stock leído:
+        // si el stock no alcanza para todas, se quedan las primeras
+        Map<String, Integer> stock = new HashMap<>();
+        productos.forEach((id, p) -> stock.put(id, p.getStock() != null ? p.getStock() : 0));
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<VentaLote> aceptadas = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            try {
+                validarFechaLote(dtos.get(i).getFecha(), ahora);
+                VentaLote v = armarDelLote(i, dtos.get(i), clientes, empleados, sucursales, productos, stock);
+                v.cantidades().forEach((id, cantidad) -> stock.merge(id, -cantidad, Integer::sum));
+                aceptadas.add(v);
+            } catch (RuntimeException e) {
+                resultados[i] = ResultadoVentaDTO.rechazada(i, e.getMessage());
+            }
+        }
+
+        // Un único descuento (o reserva) para todo el lote. Si otra caja vendió mientras
+        // tanto y un producto ya no alcanza, se rechaza la última venta que lo lleva y se reintenta
+        boolean reserva = inventario.isHabilitado();
+        while (!aceptadas.isEmpty()) {
+            Map<String, Integer> totales = sumarCantidades(aceptadas);
+            Optional<String> sinStock = reserva ? inventario.reservar(totales) : productoRepo.descontarStock(totales);
+            if (sinStock.isEmpty()) {
+                break;
+            }
+            VentaLote rechazada = ultimaConProducto(aceptadas, sinStock.get());
+            aceptadas.remove(rechazada);
+            resultados[rechazada.indice()] = ResultadoVentaDTO.rechazada(rechazada.indice(),
+                    "Stock insuficiente para producto: " + productos.get(sinStock.get()).getNombre());
+        }
+        if (aceptadas.isEmpty()) {
+            return List.of(resultados);
+        }
+
+        Map<String, Integer> totales = sumarCantidades(aceptadas);
+        List<Venta> ventas = new ArrayList<>();
+        for (VentaLote v : aceptadas) {
+            // Ids asignados antes del insertMany para poder deshacer una inserción parcial
+            v.venta().setId(new ObjectId().toHexString());
+            if (reserva) {
+                v.venta().setInventarioPendiente(true);
+            }
+            ventas.add(v.venta());
+        }
+
+        // Inserción y resúmenes diarios sin un reconstruir() de esos días en medio
+        VentaDiariaService.Registro registro = ventaDiaria.abrirRegistro(ventas);
+        try {
+            return guardarLote(ventas, aceptadas, totales, productos, reserva, resultados);
+        } finally {
+            registro.cerrar();
+        }
+    }
+
+    private List<ResultadoVentaDTO> guardarLote(List<Venta> ventas, List<VentaLote> aceptadas, Map<String, Integer> totales,
+            Map<String, Producto> productos, boolean reserva, ResultadoVentaDTO[] resultados) {
+        try {
+            ventaRepo.insert(ventas);
+        } catch (RuntimeException e) {
+            ventaRepo.deleteAllById(ventas.stream().map(Venta::getId).toList());
+            if (reserva) {
+                inventario.liberar(totales);
+            } else {
+                productoRepo.reponerStock(totales);
+            }
+            stockCambiado(productosDe(totales, productos));
+            for (VentaLote v : aceptadas) {
+                resultados[v.indice()] = ResultadoVentaDTO.rechazada(v.indice(),
+                        "No se pudo guardar la venta: " + e.getMessage());
+            }
+            return List.of(resultados);
+        }
+
+        if (reserva) {
+            aceptadas.forEach(v -> inventario.confirmar(v.venta().getId(), v.cantidades(),
+                    productosDe(v.cantidades(), productos)));
+        }
+        stockCambiado(productosDe(totales, productos));
+        // Antes del resumen: si los contadores en vivo se inicializan ahora, no las cuentan dos veces
+        ventas.forEach(enVivo::registrar);
+        ventaDiaria.registrarLote(ventas);
+
+        for (VentaLote v : aceptadas) {
+            resultados[v.indice()] = ResultadoVentaDTO.registrada(v.indice(), v.venta().getId(), v.venta().getTotal());
+        }
+        return List.of(resultados);
+    }
+
+    // La fecha de la caja entra a los resúmenes diarios: ni futura ni fuera de la ventana
+    private void validarFechaLote(LocalDateTime fecha, LocalDateTime ahora) {
+        if (fecha == null) {
+            return;
+        }
+        if (fecha.isAfter(ahora.plus(TOLERANCIA_RELOJ))) {
+            throw new RuntimeException("La fecha de la venta es posterior a la actual");
+        }
+        if (fecha.isBefore(ahora.minusDays(antiguedadMaximaDias))) {
+            throw new RuntimeException("La fecha de la venta tiene más de " + antiguedadMaximaDias + " días");
+        }
+    }
+
+    // Mismas validaciones que registrar, contra lo ya leído y el stock que queda en el lote
+    private static VentaLote armarDelLote(int indice, VentaDTO dto, Map<String, Cliente> clientes,
+            Map<String, Empleado> empleados, Map<String, Sucursal> sucursales,
+            Map<String, Producto> productos, Map<String, Integer> stock) {
+        Cliente cliente = clientes.get(dto.getClienteId());
+        if (cliente == null) {
+            throw new RuntimeException("Cliente no encontrado");
+        }
+        Empleado empleado = empleados.get(dto.getEmpleadoId());
+        if (empleado == null) {
+            throw new RuntimeException("Empleado no encontrado");
+        }
+        Sucursal sucursal = sucursales.get(dto.getSucursalId());
+        if (sucursal == null) {
+            throw new RuntimeException("Sucursal no encontrada");
+        }
+        if (dto.getItems() == null || dto.getItems().isEmpty()) {
+            throw new RuntimeException("La venta no tiene productos");
+        }
+
+        Venta venta = new Venta();
+        venta.setCliente(cliente);
+        venta.setEmpleado(empleado);
+        venta.setSucursal(sucursal);
+        if (dto.getFecha() != null) {
+            venta.setFecha(dto.getFecha());
+        }
 
+        Map<String, Integer> cantidades = agruparItems(dto);
+        validarStock(cantidades, productos, p -> stock.get(p.getId()));
+        armarDetalles(venta, cantidades, productos);
+        return new VentaLote(indice, venta, cantidades);
+    }
+
+    // Se agrupan líneas repetidas del mismo producto (conserva el orden del ticket)
+    private static Map<String, Integer> agruparItems(VentaDTO dto) {
+        Map<String, Integer> cantidades = new LinkedHashMap<>();
         for (VentaDTO.Item item : dto.getItems()) {
-            Producto producto = productoRepo.findById(String.valueOf(item.getProductoId()))
-                    .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + item.getProductoId()));
+            if (item.getCantidad() == null || item.getCantidad() <= 0) {
+                throw new RuntimeException("Cantidad inválida para producto: " + item.getProductoId());
+            }
+            cantidades.merge(String.valueOf(item.getProductoId()), item.getCantidad(), Integer::sum);
+        }
+        return cantidades;
+    }
 
-            if (producto.getStock() < item.getCantidad()) {
+    private static void validarStock(Map<String, Integer> cantidades, Map<String, Producto> productos,
+            Function<Producto, Integer> disponible) {
+        for (Map.Entry<String, Integer> linea : cantidades.entrySet()) {
+            Producto producto = productos.get(linea.getKey());
+            if (producto == null) {
+                throw new RuntimeException("Producto no encontrado: " + linea.getKey());
+            }
+            if (disponible.apply(producto) < linea.getValue()) {
                 throw new RuntimeException("Stock insuficiente para producto: " + producto.getNombre());
             }
+        }
+    }
 
-            producto.setStock(producto.getStock() - item.getCantidad());
-            productoRepo.save(producto);
+    private static void armarDetalles(Venta venta, Map<String, Integer> cantidades, Map<String, Producto> productos) {
+        List<DetalleVenta> detalles = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
 
+        for (Map.Entry<String, Integer> linea : cantidades.entrySet()) {
+            Producto producto = productos.get(linea.getKey());
             DetalleVenta det = new DetalleVenta();
             det.setProducto(producto);
-            det.setCantidad(item.getCantidad());
-            BigDecimal subtotal = producto.getPrecio().multiply(BigDecimal.valueOf(item.getCantidad()));
+            det.setCantidad(linea.getValue());
+            BigDecimal subtotal = producto.getPrecio().multiply(BigDecimal.valueOf(linea.getValue()));
             det.setSubtotal(subtotal);
             detalles.add(det);
 
@@ -72,14 +420,89 @@ public class VentaService {
 
         venta.setDetalles(detalles);
         venta.setTotal(total);
+    }
+
+    private static Map<String, Integer> sumarCantidades(List<VentaLote> ventas) {
+        Map<String, Integer> totales = new LinkedHashMap<>();
+        for (VentaLote v : ventas) {
+            v.cantidades().forEach((id, cantidad) -> totales.merge(id, cantidad, Integer::sum));
+        }
+        return totales;
+    }
+
+    private static VentaLote ultimaConProducto(List<VentaLote> ventas, String productoId) {
+        for (int i = ventas.size() - 1; i >= 0; i--) {
+            if (ventas.get(i).cantidades().containsKey(productoId)) {
+                return ventas.get(i);
+            }
+        }
+        throw new IllegalStateException("Ninguna venta del lote lleva el producto " + productoId);
+    }
+
+    // El stock de estos productos cambió: caché del catálogo y ETag de productos
+    private void stockCambiado(Collection<Producto> productos) {
+        catalogo.invalidarProductos(productos);
+        versiones.tocar(VersionesService.PRODUCTOS);
+    }
+
+    private static List<Producto> productosDe(Map<String, Integer> cantidades, Map<String, Producto> productos) {
+        return cantidades.keySet().stream().map(productos::get).toList();
+    }
+
+    private static void agregarSiHay(Set<String> ids, String id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    private static <T> Map<String, T> porId(Iterable<T> entidades, Function<T, String> id) {
+        Map<String, T> mapa = new HashMap<>();
+        entidades.forEach(e -> mapa.put(id.apply(e), e));
+        return mapa;
+    }
+
+    private record VentaLote(int indice, Venta venta, Map<String, Integer> cantidades) {
+    }
+
+    private static void stockInsuficiente(String productoId, Map<String, Producto> productos) {
+        Producto p = productos.get(productoId);
+        throw new RuntimeException("Stock insuficiente para producto: " + (p != null ? p.getNombre() : productoId));
+    }
 
-        return ventaRepo.save(venta);
+    // Refleja el descuento en los productos devueltos con la venta
+    private static void descontarEnMemoria(Map<String, Integer> cantidades, Map<String, Producto> productos) {
+        for (Map.Entry<String, Integer> linea : cantidades.entrySet()) {
+            Producto producto = productos.get(linea.getKey());
+            producto.setStock(producto.getStock() - linea.getValue());
+        }
     }
 
     public List<Venta> listarTodas() {
-        List<Venta> ventas = ventaRepo.findAll();
-        // Mongo ya devuelve toda la estructura, no hay lazy loading
-        return ventas;
+        // Referencias (sucursal, empleado, cliente, productos) resueltas en bloque
+        return ventaRepo.filtrar(null, null, null, Pageable.unpaged()).getContent();
+    }
+
+    // 🔹 Igual que listarTodas pero sobre un cursor; quien lo consume debe cerrarlo
+    public Stream<Venta> streamTodas() {
+        return ventaRepo.streamFiltradas(null, null, null);
+    }
+
+    // 🔹 Mismo filtro que filtrarVentas sobre un cursor (exportación CSV); debe cerrarse
+    public Stream<Venta> streamFiltradas(String sucursalId, LocalDate fechaInicio, LocalDate fechaFin) {
+        LocalDateTime desde = fechaInicio != null ? fechaInicio.atStartOfDay() : null;
+        LocalDateTime hasta = fechaFin != null ? fechaFin.plusDays(1).atStartOfDay() : null;
+        return ventaRepo.streamFiltradas(sucursalId, desde, hasta);
+    }
+
+    // 🔹 Lectura reactiva: las ventas se emiten por lotes a medida que el cliente las consume
+    public Flux<Venta> listarReactivo() {
+        return ventaReactivaRepo.filtrar(null, null, null);
+    }
+
+    public Flux<Venta> filtrarReactivo(String sucursalId, LocalDate fechaInicio, LocalDate fechaFin) {
+        LocalDateTime desde = fechaInicio != null ? fechaInicio.atStartOfDay() : null;
+        LocalDateTime hasta = fechaFin != null ? fechaFin.plusDays(1).atStartOfDay() : null;
+        return ventaReactivaRepo.filtrar(sucursalId, desde, hasta);
     }
 
     public List<DetalleVenta> listarDetallesPorVenta(String ventaId) {
@@ -89,26 +512,13 @@ public class VentaService {
     }
 
     public List<Venta> filtrarVentas(String sucursalId, LocalDate fechaInicio, LocalDate fechaFin) {
-        List<Venta> ventas = ventaRepo.findAll();
-
-        if (sucursalId != null && !sucursalId.isEmpty()) {
-            ventas = ventas.stream()
-                    .filter(venta -> venta.getSucursal().getId().equals(sucursalId))
-                    .collect(Collectors.toList());
-        }
-
-        if (fechaInicio != null) {
-            ventas = ventas.stream()
-                    .filter(venta -> !venta.getFecha().toLocalDate().isBefore(fechaInicio))
-                    .collect(Collectors.toList());
-        }
-
-        if (fechaFin != null) {
-            ventas = ventas.stream()
-                    .filter(venta -> !venta.getFecha().toLocalDate().isAfter(fechaFin))
-                    .collect(Collectors.toList());
-        }
+        return filtrarVentas(sucursalId, fechaInicio, fechaFin, Pageable.unpaged()).getContent();
+    }
 
-        return ventas;
+    // 🔹 Filtro resuelto en Mongo (índice sucursal + fecha); ambas fechas son inclusivas
+    public Page<Venta> filtrarVentas(String sucursalId, LocalDate fechaInicio, LocalDate fechaFin, Pageable pageable) {
+        LocalDateTime desde = fechaInicio != null ? fechaInicio.atStartOfDay() : null;
+        LocalDateTime hasta = fechaFin != null ? fechaFin.plusDays(1).atStartOfDay() : null;
+        return ventaRepo.filtrar(sucursalId, desde, hasta, pageable);
     }
 }
@@ -0,0 +1,174 @@
+package uis.entornos.backend_nosql.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import uis.entornos.backend_nosql.dto.VentasEnVivoDTO;
+import uis.entornos.backend_nosql.model.Venta;
+import uis.entornos.backend_nosql.model.VentaDiaria;
+import uis.entornos.backend_nosql.repository.VentaDiariaRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contadores en memoria de las ventas del día por sucursal (ingresos en centavos
+ * y tickets), actualizados por registrarVenta y publicados por Server-Sent Events.
+ *
+ * Los cambios se agrupan: como mucho se envía una foto cada
+ * {@code ventas.en-vivo.intervalo-ms}, sin importar cuántas ventas entren.
+ * Al cambiar de día los contadores vuelven a cero. La primera vez que se usan se
+ * inicializan con los resúmenes de "ventas_diarias" del día.
+ */
+@Service
+public class VentasEnVivoService {
+
+    private static final Logger log = LoggerFactory.getLogger(VentasEnVivoService.class);
+    // Las conexiones SSE se cierran a los 30 min; EventSource reconecta solo
+    private static final long TIMEOUT_SSE_MS = 30 * 60 * 1000L;
+
+    private final VentaDiariaRepository ventaDiariaRepo;
+    private final List<SseEmitter> suscriptores = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean cambiado = new AtomicBoolean();
+    // La inicialización lee de Mongo: lock en vez de synchronized (hilos virtuales)
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Contadores actuales;
+
+    public VentasEnVivoService(VentaDiariaRepository ventaDiariaRepo) {
+        this.ventaDiariaRepo = ventaDiariaRepo;
+    }
+
+    // 🔹 Se llama después de guardar cada venta
+    public void registrar(Venta venta) {
+        if (venta.getSucursal() == null || venta.getTotal() == null) {
+            return;
+        }
+        Contadores c = delDia(LocalDate.now());
+        // Una venta de antes de medianoche que llega tarde no cuenta para el día nuevo
+        if (venta.getFecha() != null && !venta.getFecha().toLocalDate().equals(c.dia)) {
+            return;
+        }
+        c.sumar(venta.getSucursal().getId(), 1, aCentavos(venta.getTotal()));
+        cambiado.set(true);
+    }
+
+    public VentasEnVivoDTO foto() {
+        return delDia(LocalDate.now()).foto();
+    }
+
+    // 🔹 Nueva conexión SSE: recibe la foto actual y luego las actualizaciones
+    public SseEmitter suscribir() {
+        SseEmitter emitter = new SseEmitter(TIMEOUT_SSE_MS);
+        emitter.onCompletion(() -> suscriptores.remove(emitter));
+        emitter.onTimeout(() -> suscriptores.remove(emitter));
+        emitter.onError(e -> suscriptores.remove(emitter));
+        suscriptores.add(emitter);
+        enviar(emitter, foto());
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${ventas.en-vivo.intervalo-ms:1000}")
+    public void publicar() {
+        if (suscriptores.isEmpty() || !cambiado.getAndSet(false)) {
+            return;
+        }
+        VentasEnVivoDTO foto = foto();
+        for (SseEmitter emitter : suscriptores) {
+            enviar(emitter, foto);
+        }
+    }
+
+    // A medianoche se publica el día nuevo en cero aunque no haya ventas
+    @Scheduled(cron = "0 0 0 * * *")
+    public void cambiarDia() {
+        delDia(LocalDate.now());
+        cambiado.set(true);
+    }
+
+    private void enviar(SseEmitter emitter, VentasEnVivoDTO foto) {
+        try {
+            emitter.send(SseEmitter.event().name("ventas").data(foto));
+        } catch (IOException | IllegalStateException e) {
+            suscriptores.remove(emitter);
+        }
+    }
+
+    private Contadores delDia(LocalDate hoy) {
+        Contadores c = actuales;
+        if (c != null && c.dia.equals(hoy)) {
+            return c;
+        }
+        lock.lock();
+        try {
+            c = actuales;
+            if (c == null || !c.dia.equals(hoy)) {
+                // Arranque: se parte de lo ya resumido hoy. Cambio de día: empieza en cero
+                c = new Contadores(hoy);
+                if (actuales == null) {
+                    inicializar(c);
+                }
+                actuales = c;
+            }
+            return c;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void inicializar(Contadores c) {
+        try {
+            for (VentaDiaria r : ventaDiariaRepo.findByDiaRange(c.dia, c.dia)) {
+                c.sumar(r.getSucursalId(), r.getCantidadVentas(), aCentavos(r.getTotal()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron cargar los resúmenes del día para los contadores en vivo: {}", e.getMessage());
+        }
+    }
+
+    private static long aCentavos(BigDecimal monto) {
+        return monto.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    private static final class Contadores {
+        private final LocalDate dia;
+        private final Map<String, LongAdder[]> porSucursal = new ConcurrentHashMap<>();
+
+        private Contadores(LocalDate dia) {
+            this.dia = dia;
+        }
+
+        // [0] = tickets, [1] = centavos
+        private void sumar(String sucursalId, long tickets, long centavos) {
+            LongAdder[] c = porSucursal.computeIfAbsent(sucursalId, k -> new LongAdder[] { new LongAdder(), new LongAdder() });
+            c[0].add(tickets);
+            c[1].add(centavos);
+        }
+
+        private VentasEnVivoDTO foto() {
+            Map<String, VentasEnVivoDTO.Sucursal> sucursales = new HashMap<>();
+            long tickets = 0;
+            long centavos = 0;
+            for (Map.Entry<String, LongAdder[]> e : porSucursal.entrySet()) {
+                long t = e.getValue()[0].sum();
+                long c = e.getValue()[1].sum();
+                sucursales.put(e.getKey(), new VentasEnVivoDTO.Sucursal(t, c));
+                tickets += t;
+                centavos += c;
+            }
+            return new VentasEnVivoDTO(dia.toString(), tickets, centavos, sucursales);
+        }
+    }
+}
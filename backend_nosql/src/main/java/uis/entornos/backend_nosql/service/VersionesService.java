@@ -0,0 +1,89 @@
+package uis.entornos.backend_nosql.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uis.entornos.backend_nosql.repository.Contadores;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión por colección de los datos de referencia (sucursales, productos, empleados)
+ * para responder GET condicionales (ETag / Last-Modified) sin armar la respuesta.
+ *
+ * Cada escritura hecha por los controladores (y los cambios de stock de las ventas)
+ * sube la versión de su colección en {@link Contadores} ("version_<colección>", con el
+ * instante del cambio en "modificado"), así que todas las instancias ven los mismos
+ * números y un ETag sigue valiendo tras un reinicio. Las versiones se releen de Mongo
+ * cuando pasa el TTL (una consulta por campo para todas las colecciones): un cambio
+ * hecho en otra instancia se nota a más tardar en ese plazo; uno hecho en esta, de inmediato.
+ */
+@Service
+public class VersionesService {
+
+    public static final String SUCURSALES = "sucursales";
+    public static final String PRODUCTOS = "productos";
+    public static final String EMPLEADOS = "empleados";
+
+    private static final List<String> CONTADORES = List.of(
+            contador(SUCURSALES), contador(PRODUCTOS), contador(EMPLEADOS));
+    private static final String MODIFICADO = "modificado";
+
+    private final Contadores contadores;
+    private final long ttlNanos;
+    // Escrituras de esta instancia: una lectura hecha antes de la última ya no sirve
+    private final AtomicLong escrituras = new AtomicLong();
+    private volatile Lectura leida;
+
+    public VersionesService(Contadores contadores, @Value("${versiones.ttl-ms:1000}") long ttlMs) {
+        this.contadores = contadores;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    // Llamar después de escribir en Mongo
+    public void tocar(String coleccion) {
+        contadores.incrementarYSubirA(contador(coleccion), MODIFICADO, System.currentTimeMillis());
+        escrituras.incrementAndGet();
+    }
+
+    /**
+     * Versión combinada de las colecciones de las que depende una respuesta
+     * (p. ej. productos lleva el nombre de la sucursal). Se lee antes de armar la respuesta.
+     * Si ninguna se modificó nunca, {@code modificado} es 0 y solo cuenta el ETag.
+     */
+    public Version de(String... colecciones) {
+        Lectura l = lectura();
+        StringBuilder etag = new StringBuilder("W/\"");
+        long modificado = 0;
+        for (int i = 0; i < colecciones.length; i++) {
+            String c = contador(colecciones[i]);
+            etag.append(i > 0 ? "-" : "").append(l.numeros().getOrDefault(c, 0L));
+            modificado = Math.max(modificado, l.modificados().getOrDefault(c, 0L));
+        }
+        return new Version(etag.append('"').toString(), modificado);
+    }
+
+    private Lectura lectura() {
+        Lectura l = leida;
+        long escritas = escrituras.get();
+        long ahora = System.nanoTime();
+        if (l == null || l.escrituras() != escritas || ahora - l.leidaEn() > ttlNanos) {
+            l = new Lectura(contadores.leerVarios(CONTADORES), contadores.leerVarios(CONTADORES, MODIFICADO),
+                    escritas, ahora);
+            leida = l;
+        }
+        return l;
+    }
+
+    private static String contador(String coleccion) {
+        return "version_" + coleccion;
+    }
+
+    public record Version(String etag, long modificado) {
+    }
+
+    private record Lectura(Map<String, Long> numeros, Map<String, Long> modificados, long escrituras, long leidaEn) {
+    }
+}
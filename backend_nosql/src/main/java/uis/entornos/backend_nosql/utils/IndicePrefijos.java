@@ -0,0 +1,104 @@
+package uis.entornos.backend_nosql.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de prefijos en memoria: un mapa ordenado (skip list) con una clave por
+ * cada palabra del nombre, desde esa palabra hasta el final. Así "lopez" encuentra
+ * "Luis López". Buscar es un subMap por rango: O(log n + k), sin recorrer todo.
+ *
+ * Los nombres se normalizan (minúsculas, sin tildes ni signos) tanto al indexar
+ * como al buscar. Las lecturas no bloquean; las escrituras de un mismo id se serializan.
+ */
+public class IndicePrefijos<T> {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NO_ALFANUMERICO = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Separa el texto del id en la clave: ordena antes que cualquier letra
+    private static final char SEPARADOR = '\u0000';
+
+    private final NavigableMap<String, T> entradas = new ConcurrentSkipListMap<>();
+    private final Map<String, List<String>> clavesPorId = new ConcurrentHashMap<>();
+
+    public synchronized void poner(String id, String texto, T valor) {
+        quitar(id);
+        String normalizado = normalizar(texto);
+        if (normalizado.isEmpty()) {
+            return;
+        }
+        List<String> claves = new ArrayList<>();
+        int desde = 0;
+        while (desde >= 0) {
+            String clave = normalizado.substring(desde) + SEPARADOR + id;
+            entradas.put(clave, valor);
+            claves.add(clave);
+            int espacio = normalizado.indexOf(' ', desde);
+            desde = espacio >= 0 ? espacio + 1 : -1;
+        }
+        clavesPorId.put(id, claves);
+    }
+
+    public synchronized void quitar(String id) {
+        List<String> claves = clavesPorId.remove(id);
+        if (claves != null) {
+            claves.forEach(entradas::remove);
+        }
+    }
+
+    /**
+     * Hasta {@code limite} valores cuyo nombre (o alguna de sus palabras) empieza
+     * por {@code prefijo}, en orden alfabético y sin repetir ids.
+     */
+    public List<T> buscar(String prefijo, int limite, Predicate<T> filtro) {
+        String p = normalizar(prefijo);
+        if (p.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        Map<String, T> encontrados = new LinkedHashMap<>();
+        for (Map.Entry<String, T> e : entradas.subMap(p, true, p + Character.MAX_VALUE, false).entrySet()) {
+            String id = e.getKey().substring(e.getKey().indexOf(SEPARADOR) + 1);
+            if (!encontrados.containsKey(id) && filtro.test(e.getValue())) {
+                encontrados.put(id, e.getValue());
+                if (encontrados.size() == limite) {
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(encontrados.values());
+    }
+
+    // Valor actual de cada id (una vez por id)
+    public Collection<T> valores() {
+        List<T> valores = new ArrayList<>(clavesPorId.size());
+        clavesPorId.values().forEach(claves -> {
+            T v = claves.isEmpty() ? null : entradas.get(claves.get(0));
+            if (v != null) {
+                valores.add(v);
+            }
+        });
+        return valores;
+    }
+
+    public int tamanio() {
+        return clavesPorId.size();
+    }
+
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return NO_ALFANUMERICO.matcher(sinTildes.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,113 @@
+package uis.entornos.backend_nosql.utils;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Claves HMAC para firmar y verificar los JWT, compartidas por todas las instancias.
+ *
+ * Se leen de {@code jwt.claves} ("kid:claveBase64,kid2:claveBase64") y/o de un keystore
+ * PKCS12 ({@code jwt.keystore.ruta}), donde cada alias es un kid. Los tokens se firman con
+ * {@code jwt.clave-activa} y llevan su kid en la cabecera; el resto de claves solo verifican,
+ * así se puede rotar: primero se agrega la nueva en todas las instancias, luego se activa
+ * y, cuando vencen los tokens viejos, se retira la anterior.
+ *
+ * Sin claves configuradas se genera una al azar (solo sirve con una instancia).
+ */
+@Component
+public class JwtClaves {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtClaves.class);
+    private static final String KID_LOCAL = "local";
+
+    private final Map<String, SecretKey> claves;
+    private final String kidActivo;
+
+    public JwtClaves(
+            @Value("${jwt.claves:}") String clavesConfig,
+            @Value("${jwt.clave-activa:}") String claveActiva,
+            @Value("${jwt.keystore.ruta:}") String keystoreRuta,
+            @Value("${jwt.keystore.password:}") String keystorePassword) {
+        Map<String, SecretKey> leidas = new LinkedHashMap<>();
+        if (!keystoreRuta.isBlank()) {
+            leidas.putAll(leerKeystore(keystoreRuta, keystorePassword.toCharArray()));
+        }
+        leidas.putAll(leerConfig(clavesConfig));
+
+        if (leidas.isEmpty()) {
+            log.warn("No hay claves JWT configuradas (jwt.claves / jwt.keystore.ruta): se usa una clave aleatoria "
+                    + "y los tokens solo serán válidos en esta instancia");
+            leidas.put(KID_LOCAL, Keys.secretKeyFor(SignatureAlgorithm.HS256));
+        }
+
+        String activo = claveActiva.isBlank() ? leidas.keySet().iterator().next() : claveActiva.trim();
+        if (!leidas.containsKey(activo)) {
+            throw new IllegalStateException("La clave JWT activa '" + activo + "' no está entre las configuradas");
+        }
+        this.claves = Collections.unmodifiableMap(leidas);
+        this.kidActivo = activo;
+    }
+
+    public String getKidActivo() {
+        return kidActivo;
+    }
+
+    public SecretKey getClaveActiva() {
+        return claves.get(kidActivo);
+    }
+
+    // 🔍 Clave de verificación para un kid, o null si no se conoce
+    public SecretKey buscar(String kid) {
+        return claves.get(kid);
+    }
+
+    private static Map<String, SecretKey> leerConfig(String config) {
+        Map<String, SecretKey> leidas = new LinkedHashMap<>();
+        for (String par : config.split(",")) {
+            if (par.isBlank()) {
+                continue;
+            }
+            int sep = par.indexOf(':');
+            if (sep <= 0) {
+                throw new IllegalStateException("Formato de jwt.claves inválido, se espera kid:claveBase64");
+            }
+            String kid = par.substring(0, sep).trim();
+            byte[] bytes = Decoders.BASE64.decode(par.substring(sep + 1).trim());
+            // hmacShaKeyFor exige al menos 256 bits
+            leidas.put(kid, Keys.hmacShaKeyFor(bytes));
+        }
+        return leidas;
+    }
+
+    private static Map<String, SecretKey> leerKeystore(String ruta, char[] password) {
+        Map<String, SecretKey> leidas = new LinkedHashMap<>();
+        try (InputStream in = Files.newInputStream(Path.of(ruta))) {
+            KeyStore ks = KeyStore.getInstance("PKCS12");
+            ks.load(in, password);
+            for (String alias : Collections.list(ks.aliases())) {
+                Key key = ks.getKey(alias, password);
+                if (key instanceof SecretKey) {
+                    leidas.put(alias, Keys.hmacShaKeyFor(key.getEncoded()));
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo leer el keystore de claves JWT: " + ruta, e);
+        }
+        return leidas;
+    }
+}
@@ -1,54 +1,143 @@
 package uis.entornos.backend_nosql.utils;
 
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
 import io.jsonwebtoken.Claims;
 
-import javax.crypto.SecretKey;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtils {
 
-    // 🔒 Clave secreta segura para HS256
-    private static final SecretKey SECRET_KEY = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-
     // ⏱️ Duración del token: 4 horas
     private static final long EXPIRATION_TIME = 1000 * 60 * 60 * 4;
 
+    // MessageDigest no es thread-safe: uno por hilo
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    // 🔒 Claves compartidas entre instancias (firma con la activa, verifica con cualquiera)
+    private final JwtClaves claves;
+
+    // 🧩 El parser es inmutable y thread-safe: se arma una sola vez
+    private final JwtParser parser;
+
+    // 🗂️ Tokens ya verificados: hash del token -> claims (válidos hasta su "exp")
+    private final Map<String, Verificado> verificados = new ConcurrentHashMap<>();
+    private final int maxVerificados;
+
+    public JwtUtils(JwtClaves claves, @Value("${jwt.cache.max-entradas:10000}") int maxVerificados) {
+        this.claves = claves;
+        this.maxVerificados = maxVerificados;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    // jjwt 0.11 declara el parámetro como JwsHeader crudo; con JwsHeader<?> ya no lo sobrescribe
+                    @SuppressWarnings("rawtypes")
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        // La clave se elige por el "kid" de la cabecera
+                        String kid = header.getKeyId();
+                        Key key = kid != null ? claves.buscar(kid) : null;
+                        if (key == null) {
+                            throw new SignatureException("Clave JWT desconocida: " + kid);
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
     // ✅ Genera un token con el nombre de usuario
     public String generateToken(String username) {
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, claves.getKidActivo())
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(SECRET_KEY)
+                .signWith(claves.getClaveActiva())
                 .compact();
     }
 
+    /**
+     * Verifica el token una sola vez y devuelve sus claims, o vacío si no es válido
+     * o expiró. Un token ya verificado se sirve desde la caché sin volver a
+     * comprobar la firma, hasta su fecha de expiración.
+     */
+    public Optional<Claims> parseToken(String token) {
+        String clave = hash(token);
+        long ahora = System.currentTimeMillis();
+
+        Verificado v = verificados.get(clave);
+        if (v != null) {
+            if (v.expira() > ahora) {
+                return Optional.of(v.claims());
+            }
+            verificados.remove(clave, v);
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+        // Sin "exp" no se guarda: la caché solo sirve tokens con vencimiento conocido
+        if (claims.getExpiration() != null) {
+            guardar(clave, new Verificado(claims, claims.getExpiration().getTime()), ahora);
+        }
+        return Optional.of(claims);
+    }
+
     // 🔍 Extrae el "username" del token
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return parseToken(token)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new RuntimeException("Token inválido"));
     }
 
     // ✅ Valida si el token es correcto y no ha expirado
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(SECRET_KEY)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+        return parseToken(token).isPresent();
+    }
+
+    private void guardar(String clave, Verificado v, long ahora) {
+        if (verificados.size() >= maxVerificados) {
+            // Primero se descartan los vencidos; si no alcanza, cualquier otro
+            verificados.values().removeIf(e -> e.expira() <= ahora);
+            Iterator<String> it = verificados.keySet().iterator();
+            while (verificados.size() >= maxVerificados && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
         }
+        verificados.put(clave, v);
+    }
+
+    private static String hash(String token) {
+        byte[] digest = SHA256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(digest);
+    }
+
+    private record Verificado(Claims claims, long expira) {
     }
 }
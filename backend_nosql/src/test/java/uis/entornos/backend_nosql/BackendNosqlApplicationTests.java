@@ -3,7 +3,8 @@ package uis.entornos.backend_nosql;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Sin crear índices al arrancar: el contexto debe levantar aunque Mongo no esté disponible
+@SpringBootTest(properties = "spring.data.mongodb.auto-index-creation=false")
 class BackendNosqlApplicationTests {
 
 	@Test
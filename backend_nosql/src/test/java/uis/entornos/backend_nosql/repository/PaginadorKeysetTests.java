@@ -0,0 +1,135 @@
+package uis.entornos.backend_nosql.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import uis.entornos.backend_nosql.model.Producto;
+
+class PaginadorKeysetTests {
+
+	private DbRefBatchLoader batchLoader;
+	// Consultas que llegaron al loader, en orden
+	private final List<Query> consultas = new ArrayList<>();
+	private PaginadorKeyset paginador;
+
+	@BeforeEach
+	void preparar() {
+		batchLoader = mock(DbRefBatchLoader.class);
+		paginador = new PaginadorKeyset(batchLoader);
+	}
+
+	private static Producto producto(String id, String nombre) {
+		Producto p = new Producto();
+		p.setId(id);
+		p.setNombre(nombre);
+		return p;
+	}
+
+	// El loader devuelve estos productos (ya ordenados y limitados, como haría Mongo)
+	private void leer(Producto... productos) {
+		when(batchLoader.find(any(Query.class), eq(Producto.class))).thenAnswer(inv -> {
+			consultas.add(inv.getArgument(0));
+			return Arrays.asList(productos);
+		});
+	}
+
+	private Pagina<Producto> porId(String after, int limite) {
+		return paginador.pagina(new Query(), Producto.class, Producto::getId, after, limite);
+	}
+
+	private Pagina<Producto> porNombre(String after, int limite) {
+		return paginador.pagina(new Query(), Producto.class, "nombre", Producto::getNombre, Producto::getId, after,
+				limite);
+	}
+
+	private Document filtro(int i) {
+		return consultas.get(i).getQueryObject();
+	}
+
+	@Test
+	void seLeeUnoDeMasYElCursorLlevaAlSiguienteId() {
+		leer(producto("a", null), producto("b", null), producto("c", null));
+
+		Pagina<Producto> primera = porId(null, 2);
+		porId(primera.siguiente(), 2);
+
+		assertThat(primera.contenido()).extracting(Producto::getId).containsExactly("a", "b");
+		assertThat(consultas.get(0).getLimit()).isEqualTo(3);
+		assertThat(consultas.get(0).getSortObject()).isEqualTo(new Document("id", 1));
+		assertThat(filtro(0)).isEmpty();
+		assertThat(filtro(1)).isEqualTo(new Document("id", new Document("$gt", "b")));
+	}
+
+	@Test
+	void laUltimaPaginaNoTraeCursor() {
+		leer(producto("a", null), producto("b", null));
+
+		assertThat(porId(null, 2).siguiente()).isNull();
+	}
+
+	@Test
+	void elLimiteSeAcota() {
+		leer();
+
+		porId(null, 0);
+		porId(null, 5000);
+
+		assertThat(consultas.get(0).getLimit()).isEqualTo(2);
+		assertThat(consultas.get(1).getLimit()).isEqualTo(PaginadorKeyset.LIMITE_MAXIMO + 1);
+	}
+
+	@Test
+	void elCursorEsBase64UrlSinRelleno() {
+		// "?>?" en Base64 estándar lleva '/' y '='
+		leer(producto("a?>?", null), producto("b", null));
+
+		String cursor = porId(null, 1).siguiente();
+		porId(cursor, 1);
+
+		assertThat(cursor).matches("[A-Za-z0-9_-]+");
+		assertThat(filtro(1)).isEqualTo(new Document("id", new Document("$gt", "a?>?")));
+	}
+
+	@Test
+	void unCursorQueNoEsBase64SeRechaza() {
+		assertThatThrownBy(() -> porId("no es un cursor", 10)).hasMessage("Cursor inválido");
+		assertThatThrownBy(() -> porNombre("%%%", 10)).hasMessage("Cursor inválido");
+	}
+
+	@Test
+	void porNombreElCursorLlevaNombreEIdYDesempataPorId() {
+		leer(producto("x1", "Café, 50% & más"), producto("x2", "Zanahoria"));
+
+		String cursor = porNombre(null, 1).siguiente();
+		porNombre(cursor, 1);
+
+		assertThat(consultas.get(0).getSortObject()).isEqualTo(new Document("nombre", 1).append("id", 1));
+		assertThat(filtro(1)).isEqualTo(new Document("$or", List.of(
+				new Document("nombre", new Document("$gt", "Café, 50% & más")),
+				new Document("nombre", "Café, 50% & más").append("id", new Document("$gt", "x1")))));
+	}
+
+	@Test
+	void porNombreUnNombreNuloSigueConLosQueTienenNombre() {
+		leer(producto("x1", null), producto("x2", "Arroz"));
+
+		porNombre(porNombre(null, 1).siguiente(), 1);
+
+		assertThat(filtro(1)).isEqualTo(new Document("$or", List.of(
+				new Document("nombre", new Document("$ne", null)),
+				new Document("nombre", null).append("id", new Document("$gt", "x1")))));
+	}
+}
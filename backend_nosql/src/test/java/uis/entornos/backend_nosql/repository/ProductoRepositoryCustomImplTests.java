@@ -0,0 +1,154 @@
+package uis.entornos.backend_nosql.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.bulk.BulkWriteResult;
+
+import uis.entornos.backend_nosql.model.Producto;
+
+class ProductoRepositoryCustomImplTests {
+
+	private static final long PRIMERO = 100;
+
+	private MongoTemplate mongoTemplate;
+	private SecuenciaCambios secuencia;
+	// Un bulk por llamada a bulkOps: el descuento y, si hace falta, la reposición
+	private final List<BulkOperations> bulks = new ArrayList<>();
+	private ProductoRepositoryCustomImpl repo;
+
+	@BeforeEach
+	void preparar() {
+		mongoTemplate = mock(MongoTemplate.class);
+		secuencia = mock(SecuenciaCambios.class);
+		when(secuencia.reservar(anyInt())).thenReturn(PRIMERO);
+		repo = new ProductoRepositoryCustomImpl(mongoTemplate, null, null, secuencia);
+	}
+
+	private static Map<String, Integer> cantidades() {
+		Map<String, Integer> cantidades = new LinkedHashMap<>();
+		cantidades.put("a", 1);
+		cantidades.put("b", 2);
+		cantidades.put("c", 3);
+		return cantidades;
+	}
+
+	// El bulk de descuento (el primero que se pide) coincide con "coincidencias" productos
+	private void descuentoCoincide(int coincidencias) {
+		BulkWriteResult resultado = mock(BulkWriteResult.class);
+		when(resultado.getMatchedCount()).thenReturn(coincidencias);
+		when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Producto.class))).thenAnswer(inv -> {
+			BulkOperations bulk = mock(BulkOperations.class, RETURNS_SELF);
+			if (bulks.isEmpty()) {
+				when(bulk.execute()).thenReturn(resultado);
+			}
+			bulks.add(bulk);
+			return bulk;
+		});
+	}
+
+	private void descontadosSegunMongo(String... ids) {
+		List<Producto> productos = new ArrayList<>();
+		for (String id : ids) {
+			Producto p = new Producto();
+			p.setId(id);
+			productos.add(p);
+		}
+		when(mongoTemplate.find(any(Query.class), eq(Producto.class))).thenReturn(productos);
+	}
+
+	// productoId -> cantidad repuesta, leído de los $inc del bulk de reposición
+	private Map<String, Integer> repuestos() {
+		assertThat(bulks).hasSize(2);
+		ArgumentCaptor<Query> filtros = ArgumentCaptor.forClass(Query.class);
+		ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+		verify(bulks.get(1), atLeast(0)).updateOne(filtros.capture(), updates.capture());
+		Map<String, Integer> repuestos = new LinkedHashMap<>();
+		for (int i = 0; i < filtros.getAllValues().size(); i++) {
+			String id = filtros.getAllValues().get(i).getQueryObject().getString("id");
+			Document inc = updates.getAllValues().get(i).getUpdateObject().get("$inc", Document.class);
+			repuestos.put(id, inc.getInteger("stock"));
+		}
+		return repuestos;
+	}
+
+	@Test
+	void siTodosCoincidenNoRepone() {
+		descuentoCoincide(3);
+
+		assertThat(repo.descontarStock(cantidades())).isEmpty();
+
+		assertThat(bulks).hasSize(1);
+		verify(bulks.get(0), times(3)).updateOne(any(Query.class), any(Update.class));
+		verify(mongoTemplate, never()).find(any(Query.class), eq(Producto.class));
+		verify(secuencia).liberar(PRIMERO);
+	}
+
+	@Test
+	void cadaDescuentoEsCondicionalYAnotaSuNumero() {
+		descuentoCoincide(3);
+
+		repo.descontarStock(cantidades());
+
+		ArgumentCaptor<Query> filtros = ArgumentCaptor.forClass(Query.class);
+		ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+		verify(bulks.get(0), times(3)).updateOne(filtros.capture(), updates.capture());
+		Document filtro = filtros.getAllValues().get(1).getQueryObject();
+		assertThat(filtro.getString("id")).isEqualTo("b");
+		assertThat(filtro.get("stock", Document.class).getInteger("$gte")).isEqualTo(2);
+		Document update = updates.getAllValues().get(1).getUpdateObject();
+		assertThat(update.get("$inc", Document.class).getInteger("stock")).isEqualTo(-2);
+		assertThat(update.get("$set", Document.class).getLong("cambio")).isEqualTo(PRIMERO + 1);
+	}
+
+	@Test
+	void siUnoNoAlcanzaReponeSoloLosDescontados() {
+		// "b" no alcanzó; "a" y "c" sí se descontaron (el bulk ordenado sigue de largo)
+		descuentoCoincide(2);
+		descontadosSegunMongo("a", "c");
+
+		Optional<String> fallido = repo.descontarStock(cantidades());
+
+		assertThat(fallido).contains("b");
+		assertThat(repuestos()).containsExactly(Map.entry("a", 1), Map.entry("c", 3));
+	}
+
+	@Test
+	void laConsultaDeDescontadosUsaLosNumerosDeEstaReserva() {
+		descuentoCoincide(0);
+		descontadosSegunMongo();
+
+		assertThat(repo.descontarStock(cantidades())).contains("a");
+
+		ArgumentCaptor<Query> consulta = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).find(consulta.capture(), eq(Producto.class));
+		Document numeros = consulta.getValue().getQueryObject().get("descuentosStock", Document.class);
+		assertThat(numeros.getList("$in", Long.class)).containsExactly(PRIMERO, PRIMERO + 1, PRIMERO + 2);
+		// Nada que reponer: no hay segundo bulk
+		assertThat(bulks).hasSize(1);
+	}
+}
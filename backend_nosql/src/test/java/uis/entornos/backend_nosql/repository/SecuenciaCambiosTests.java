@@ -0,0 +1,118 @@
+package uis.entornos.backend_nosql.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SecuenciaCambiosTests {
+
+	// Documento "productos" de la colección de contadores, en memoria: lo comparten
+	// todas las instancias de SecuenciaCambios del test
+	private final AtomicLong contador = new AtomicLong();
+	private final List<Contadores.Pendiente> pendientes = new ArrayList<>();
+	private Contadores contadores;
+	private SecuenciaCambios secuencia;
+
+	@BeforeEach
+	void preparar() {
+		contadores = mock(Contadores.class);
+		when(contadores.incrementarPendiente(eq("productos"), anyLong(), any())).thenAnswer(inv -> {
+			pendientes.add(inv.getArgument(2));
+			return contador.addAndGet(inv.getArgument(1, Long.class));
+		});
+		doAnswer(inv -> {
+			Collection<String> reservas = inv.getArgument(1);
+			pendientes.removeIf(p -> reservas.contains(p.reserva()));
+			return null;
+		}).when(contadores).quitarPendientes(eq("productos"), anyCollection());
+		when(contadores.leerConPendientes("productos"))
+				.thenAnswer(inv -> new Contadores.ConPendientes(contador.get(), List.copyOf(pendientes)));
+		when(contadores.leer("productos")).thenAnswer(inv -> contador.get());
+		secuencia = new SecuenciaCambios(contadores);
+	}
+
+	@Test
+	void sinReservasConfirmaHastaElContador() {
+		secuencia.liberar(secuencia.reservar(3));
+
+		assertThat(secuencia.confirmado()).isEqualTo(3);
+		assertThat(pendientes).isEmpty();
+	}
+
+	@Test
+	void unaReservaEnCursoLimitaLoConfirmado() {
+		long lenta = secuencia.reservar(2);
+		long rapida = secuencia.reservar(1);
+		secuencia.liberar(rapida);
+
+		// 3 ya está escrito, pero 1 y 2 todavía no: entregar 3 haría saltear a la caja
+		assertThat(lenta).isEqualTo(1);
+		assertThat(rapida).isEqualTo(3);
+		assertThat(secuencia.confirmado()).isZero();
+
+		secuencia.liberar(lenta);
+		assertThat(secuencia.confirmado()).isEqualTo(3);
+	}
+
+	@Test
+	void laReservaMasViejaEsLaQueManda() {
+		secuencia.liberar(secuencia.reservar(1));
+		long segunda = secuencia.reservar(1);
+		long tercera = secuencia.reservar(1);
+
+		assertThat(secuencia.confirmado()).isEqualTo(1);
+
+		secuencia.liberar(segunda);
+		assertThat(secuencia.confirmado()).isEqualTo(2);
+
+		secuencia.liberar(tercera);
+		assertThat(secuencia.confirmado()).isEqualTo(3);
+	}
+
+	@Test
+	void unaReservaDeOtraInstanciaTambienLimitaLoConfirmado() {
+		SecuenciaCambios otra = new SecuenciaCambios(contadores);
+		long deLaOtra = otra.reservar(2);
+		secuencia.liberar(secuencia.reservar(1));
+
+		assertThat(secuencia.confirmado()).isZero();
+
+		otra.liberar(deLaOtra);
+		assertThat(secuencia.confirmado()).isEqualTo(3);
+	}
+
+	@Test
+	void laReservaDeUnaInstanciaCaidaVenceYSeBorra() {
+		long hace = System.currentTimeMillis() - SecuenciaCambios.VENCIMIENTO_MS - 1;
+		pendientes.add(new Contadores.Pendiente("caida", 0, hace));
+		contador.set(5);
+
+		assertThat(secuencia.confirmado()).isEqualTo(5);
+		assertThat(pendientes).isEmpty();
+	}
+
+	@Test
+	void siNoSePuedeQuitarLaReservaNoSeTapaElErrorDeLaEscritura() {
+		long primero = secuencia.reservar(1);
+		doThrow(new RuntimeException("Mongo caído")).when(contadores).quitarPendientes(eq("productos"), anyCollection());
+
+		secuencia.liberar(primero);
+
+		// Sigue anotada hasta que venza
+		assertThat(secuencia.confirmado()).isZero();
+	}
+}
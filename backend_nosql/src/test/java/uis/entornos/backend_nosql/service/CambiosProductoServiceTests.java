@@ -0,0 +1,99 @@
+package uis.entornos.backend_nosql.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import uis.entornos.backend_nosql.dto.CambiosProductoDTO;
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.model.ProductoEliminado;
+import uis.entornos.backend_nosql.model.Sucursal;
+
+class CambiosProductoServiceTests {
+
+	private static Producto producto(long cambio) {
+		Sucursal s = new Sucursal();
+		s.setId("suc-1");
+		s.setNombre("Centro");
+		Producto p = new Producto();
+		p.setId("p" + cambio);
+		p.setNombre("Producto " + cambio);
+		p.setSucursal(s);
+		p.setCambio(cambio);
+		return p;
+	}
+
+	private static ProductoEliminado baja(long cambio) {
+		return new ProductoEliminado("e" + cambio, "suc-1", cambio, LocalDateTime.now());
+	}
+
+	private static List<Long> secuencias(CambiosProductoDTO dto) {
+		return dto.getCambios().stream().map(CambiosProductoDTO.Cambio::getSecuencia).toList();
+	}
+
+	@Test
+	void intercalaAltasYBajasYCortaEnElLimite() {
+		// n = 3: el repositorio entrega hasta n + 1 de cada lado
+		List<Producto> productos = List.of(producto(11), producto(13), producto(16), producto(17));
+		List<ProductoEliminado> eliminados = List.of(baja(12), baja(14), baja(15));
+
+		CambiosProductoDTO dto = CambiosProductoService.mezclar(10, 20, 3, productos, eliminados);
+
+		assertThat(secuencias(dto)).containsExactly(11L, 12L, 13L);
+		assertThat(dto.getCambios()).extracting(CambiosProductoDTO.Cambio::isEliminado)
+				.containsExactly(false, true, false);
+		assertThat(dto.isHayMas()).isTrue();
+		// La próxima página sigue justo después del último entregado, no desde "hasta"
+		assertThat(dto.getSiguiente()).isEqualTo(13);
+	}
+
+	@Test
+	void laPaginaSiguienteRetomaSinSaltearNiRepetir() {
+		List<Producto> productos = List.of(producto(16), producto(17));
+		List<ProductoEliminado> eliminados = List.of(baja(14), baja(15));
+
+		CambiosProductoDTO dto = CambiosProductoService.mezclar(13, 20, 3, productos, eliminados);
+
+		assertThat(secuencias(dto)).containsExactly(14L, 15L, 16L);
+		assertThat(dto.isHayMas()).isTrue();
+		assertThat(dto.getSiguiente()).isEqualTo(16);
+	}
+
+	@Test
+	void sinSobrantesTerminaEnHasta() {
+		List<Producto> productos = List.of(producto(11), producto(14));
+		List<ProductoEliminado> eliminados = List.of(baja(12));
+
+		CambiosProductoDTO dto = CambiosProductoService.mezclar(10, 20, 3, productos, eliminados);
+
+		assertThat(secuencias(dto)).containsExactly(11L, 12L, 14L);
+		assertThat(dto.isHayMas()).isFalse();
+		// Hasta lo confirmado aunque el último cambio sea menor: nada más puede aparecer debajo
+		assertThat(dto.getSiguiente()).isEqualTo(20);
+	}
+
+	@Test
+	void soloBajasMasAllaDelLimite() {
+		List<ProductoEliminado> eliminados = List.of(baja(11), baja(12), baja(13));
+
+		CambiosProductoDTO dto = CambiosProductoService.mezclar(10, 20, 2, List.of(), eliminados);
+
+		assertThat(secuencias(dto)).containsExactly(11L, 12L);
+		assertThat(dto.getCambios()).allMatch(CambiosProductoDTO.Cambio::isEliminado);
+		assertThat(dto.isHayMas()).isTrue();
+		assertThat(dto.getSiguiente()).isEqualTo(12);
+	}
+
+	@Test
+	void elCambioLlevaLosDatosDeLaSucursal() {
+		CambiosProductoDTO dto = CambiosProductoService.mezclar(10, 20, 5, List.of(producto(11)), List.of());
+
+		CambiosProductoDTO.Cambio c = dto.getCambios().get(0);
+		assertThat(c.getId()).isEqualTo("p11");
+		assertThat(c.getSucursalId()).isEqualTo("suc-1");
+		assertThat(c.getSucursalNombre()).isEqualTo("Centro");
+	}
+}
@@ -0,0 +1,106 @@
+package uis.entornos.backend_nosql.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import uis.entornos.backend_nosql.model.Cliente;
+import uis.entornos.backend_nosql.model.DetalleVenta;
+import uis.entornos.backend_nosql.model.Empleado;
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.model.Sucursal;
+import uis.entornos.backend_nosql.model.Venta;
+
+class ExportacionVentasServiceTests {
+
+	private static Venta venta(String cliente, String producto, BigDecimal total) {
+		Sucursal s = new Sucursal();
+		s.setId("suc");
+		s.setNombre("Centro");
+		Empleado e = new Empleado();
+		e.setId("emp");
+		e.setNombre("Ana");
+		Cliente c = new Cliente();
+		c.setId("cli");
+		c.setNombre(cliente);
+		Producto p = new Producto();
+		p.setId("prod");
+		p.setNombre(producto);
+		DetalleVenta d = new DetalleVenta();
+		d.setProducto(p);
+		d.setCantidad(2);
+		d.setSubtotal(total);
+
+		Venta v = new Venta();
+		v.setId("v1");
+		v.setFecha(LocalDateTime.of(2025, 3, 10, 9, 30));
+		v.setSucursal(s);
+		v.setEmpleado(e);
+		v.setCliente(c);
+		v.setDetalles(List.of(d));
+		v.setTotal(total);
+		return v;
+	}
+
+	// Filas del CSV sin el BOM ni el encabezado
+	private static List<String> filas(boolean porDetalle, Venta... ventas) throws IOException {
+		VentaService ventaService = mock(VentaService.class);
+		when(ventaService.streamFiltradas(null, null, null)).thenReturn(Stream.of(ventas));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		new ExportacionVentasService(ventaService).escribirCsv(null, null, null, porDetalle, out);
+
+		String csv = out.toString(StandardCharsets.UTF_8);
+		assertThat(csv).startsWith("﻿");
+		List<String> lineas = List.of(csv.substring(1).split("\n", -1));
+		// Termina en salto de línea: el último elemento queda vacío
+		assertThat(lineas.get(lineas.size() - 1)).isEmpty();
+		return lineas.subList(1, lineas.size() - 1);
+	}
+
+	@Test
+	void unaFilaPorVentaConMontosSinNotacionCientifica() throws IOException {
+		assertThat(filas(false, venta("Luis", "Café", new BigDecimal("1E+3"))))
+				.containsExactly("v1,2025-03-10T09:30,suc,Centro,emp,Ana,cli,Luis,2,1000");
+	}
+
+	@Test
+	void unaFilaPorDetalle() throws IOException {
+		assertThat(filas(true, venta("Luis", "Café", new BigDecimal("2500.50"))))
+				.containsExactly("v1,2025-03-10T09:30,suc,Centro,emp,Ana,cli,Luis,prod,Café,2,2500.50");
+	}
+
+	@Test
+	void comillasComasYSaltosVanEntreComillas() throws IOException {
+		String fila = filas(false, venta("Pérez, \"el Mono\"\nJr.", "Café", BigDecimal.TEN)).get(0);
+
+		assertThat(fila).contains(",\"Pérez, \"\"el Mono\"\"");
+		assertThat(filas(false, venta("Ana\rMaría", "Café", BigDecimal.TEN)).get(0)).contains(",\"Ana\rMaría\",");
+	}
+
+	@Test
+	void textosQueParecenFormulaSeNeutralizan() throws IOException {
+		assertThat(filas(true, venta("=HYPERLINK(\"x\")", "+1", BigDecimal.ONE)).get(0))
+				.contains(",\"'=HYPERLINK(\"\"x\"\")\",")
+				.contains(",'+1,");
+		assertThat(filas(true, venta("-2", "@SUM(A1)", BigDecimal.ONE)).get(0))
+				.contains(",'-2,")
+				.contains(",'@SUM(A1),");
+		assertThat(filas(false, venta("\tTab", "Café", BigDecimal.ONE)).get(0)).contains(",'\tTab,");
+	}
+
+	@Test
+	void losNumerosNegativosNoSeTocan() throws IOException {
+		assertThat(filas(false, venta("Luis", "Café", new BigDecimal("-150.00"))).get(0)).endsWith(",-150.00");
+	}
+}
@@ -0,0 +1,128 @@
+package uis.entornos.backend_nosql.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uis.entornos.backend_nosql.repository.Contadores;
+import uis.entornos.backend_nosql.repository.ProductoRepository;
+import uis.entornos.backend_nosql.repository.VentaRepository;
+
+class InventarioServiceTests {
+
+	private ProductoRepository productoRepo;
+	private VentaRepository ventaRepo;
+	// Stock guardado en "productos" según el repositorio simulado
+	private final Map<String, Integer> enMongo = new HashMap<>();
+	private InventarioService inventario;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void preparar() {
+		productoRepo = mock(ProductoRepository.class);
+		ventaRepo = mock(VentaRepository.class);
+		Contadores contadores = mock(Contadores.class);
+		when(contadores.incrementar(any(), anyLong())).thenReturn(1L);
+		when(productoRepo.leerStock(any())).thenAnswer(inv -> {
+			Map<String, Integer> stock = new HashMap<>();
+			for (String id : (Collection<String>) inv.getArgument(0)) {
+				if (enMongo.containsKey(id)) {
+					stock.put(id, enMongo.get(id));
+				}
+			}
+			return stock;
+		});
+		inventario = new InventarioService(productoRepo, ventaRepo, mock(VersionesService.class),
+				mock(CatalogoCacheService.class), contadores, true);
+		enMongo.put("p", 10);
+	}
+
+	// Cuántas unidades quedan disponibles: se reserva de a una hasta que falla y se devuelve todo
+	private int disponibles(String id) {
+		int n = 0;
+		while (inventario.reservar(Map.of(id, 1)).isEmpty()) {
+			n++;
+		}
+		for (int i = 0; i < n; i++) {
+			inventario.liberar(Map.of(id, 1));
+		}
+		return n;
+	}
+
+	@Test
+	void reservaTodoONada() {
+		enMongo.put("q", 1);
+
+		assertThat(inventario.reservar(Map.of("p", 3, "q", 2))).contains("q");
+
+		assertThat(disponibles("p")).isEqualTo(10);
+		assertThat(disponibles("q")).isEqualTo(1);
+	}
+
+	@Test
+	void invalidarSumaElCambioExternoSinPerderLoReservado() {
+		// Reserva cuya venta todavía no se guardó
+		assertThat(inventario.reservar(Map.of("p", 4))).isEmpty();
+
+		enMongo.put("p", 12);
+		inventario.invalidar("p");
+
+		assertThat(disponibles("p")).isEqualTo(8);
+	}
+
+	@Test
+	void unaReservaDuranteLaRelecturaNoSePierde() {
+		assertThat(inventario.reservar(Map.of("p", 1))).isEmpty();
+		// Mientras invalidar relee Mongo, entra otra venta y descuenta del contador
+		when(productoRepo.leerStock(List.of("p"))).thenAnswer(inv -> {
+			assertThat(inventario.reservar(Map.of("p", 3))).isEmpty();
+			return Map.of("p", 12);
+		});
+
+		inventario.invalidar("p");
+
+		// 12 en Mongo, menos las 4 unidades reservadas sin volcar
+		assertThat(disponibles("p")).isEqualTo(8);
+	}
+
+	@Test
+	void unVolcadoFallidoNoSeCuentaComoCambioExterno() {
+		assertThat(inventario.reservar(Map.of("p", 4))).isEmpty();
+		inventario.confirmar("v1", Map.of("p", 4), List.of());
+		doThrow(new RuntimeException("Mongo caído")).when(ventaRepo).asignarLoteInventario(any(), anyLong());
+
+		// El lote no llega a Mongo: sigue en 10, más 2 que se cargaron a mano
+		enMongo.put("p", 12);
+		inventario.invalidar("p");
+		assertThat(disponibles("p")).isEqualTo(8);
+
+		// Se reintenta con éxito: Mongo queda en 8 y el contador no cambia
+		reset(ventaRepo);
+		enMongo.put("p", 8);
+		inventario.volcar();
+		inventario.invalidar("p");
+		assertThat(disponibles("p")).isEqualTo(8);
+	}
+
+	@Test
+	void productoEliminadoQuedaSinStock() {
+		assertThat(disponibles("p")).isEqualTo(10);
+
+		enMongo.remove("p");
+		inventario.invalidar("p");
+
+		assertThat(inventario.reservar(Map.of("p", 1))).contains("p");
+	}
+}
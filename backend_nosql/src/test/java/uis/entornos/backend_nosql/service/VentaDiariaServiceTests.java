@@ -0,0 +1,147 @@
+package uis.entornos.backend_nosql.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import uis.entornos.backend_nosql.model.Venta;
+import uis.entornos.backend_nosql.repository.Contadores;
+import uis.entornos.backend_nosql.repository.VentaDiariaRepository;
+
+class VentaDiariaServiceTests {
+
+	private static final LocalDate DIA = LocalDate.of(2025, 3, 10);
+
+	private VentaDiariaRepository repo;
+	private Contadores contadores;
+	private VentaDiariaService servicio;
+
+	@BeforeEach
+	void preparar() {
+		repo = mock(VentaDiariaRepository.class);
+		contadores = mock(Contadores.class);
+		servicio = new VentaDiariaService(repo, contadores);
+	}
+
+	private static Venta venta(LocalDate dia) {
+		Venta v = new Venta();
+		v.setFecha(dia.atTime(12, 0));
+		return v;
+	}
+
+	// Una caja guarda y registra su venta completa
+	private void vender(Venta v) {
+		VentaDiariaService.Registro registro = servicio.abrirRegistro(List.of(v));
+		try {
+			servicio.registrar(v);
+		} finally {
+			registro.cerrar();
+		}
+	}
+
+	@Test
+	void fueraDeUnRecalculoSumaDirecto() {
+		Venta v = venta(DIA);
+
+		vender(v);
+
+		assertThat(v.getId()).isNotNull();
+		verify(repo).acumular(v);
+	}
+
+	@Test
+	void unaVentaDuranteElRecalculoNoEsperaYSeSumaDespuesDelReemplazo() {
+		Venta durante = venta(DIA);
+		List<Set<String>> excluidasAlRecorrer = new ArrayList<>();
+		when(repo.calcularDesdeVentas(eq(DIA), eq(DIA), any())).thenAnswer(inv -> {
+			// Entra una venta del día mientras se recorre "ventas": no se bloquea
+			vender(durante);
+			excluidasAlRecorrer.add(Set.copyOf(inv.<Set<String>>getArgument(2)));
+			return List.of();
+		});
+
+		servicio.reconstruir(DIA, DIA);
+
+		assertThat(excluidasAlRecorrer).containsExactly(Set.of(durante.getId()));
+		verify(repo, never()).acumular(any());
+		InOrder orden = inOrder(repo);
+		orden.verify(repo).saveAll(anyCollection());
+		orden.verify(repo).deleteByDiaRangeExcept(eq(DIA), eq(DIA), anyCollection());
+		orden.verify(repo).acumularLote(List.of(durante));
+	}
+
+	@Test
+	void unaVentaDeOtroDiaNoSeExcluye() {
+		Venta otroDia = venta(DIA.plusDays(1));
+		when(repo.calcularDesdeVentas(eq(DIA), eq(DIA), any())).thenAnswer(inv -> {
+			vender(otroDia);
+			assertThat(inv.<Set<String>>getArgument(2)).isEmpty();
+			return List.of();
+		});
+
+		servicio.reconstruir(DIA, DIA);
+
+		verify(repo).acumular(otroDia);
+		verify(repo, never()).acumularLote(any());
+	}
+
+	@Test
+	void siElRecalculoFallaIgualSeSumanLasPostergadas() {
+		Venta durante = venta(DIA);
+		when(repo.calcularDesdeVentas(eq(DIA), eq(DIA), any())).thenAnswer(inv -> {
+			vender(durante);
+			throw new RuntimeException("Mongo caído");
+		});
+
+		assertThatThrownBy(() -> servicio.reconstruir(DIA, DIA)).hasMessage("Mongo caído");
+
+		verify(repo).acumularLote(List.of(durante));
+		// Terminado el recálculo, las ventas nuevas vuelven a sumar directo
+		Venta despues = venta(DIA);
+		vender(despues);
+		verify(repo).acumular(despues);
+	}
+
+	@Test
+	void elHistorialSeArmaMesAMesUnaSolaVez() {
+		when(repo.primerDiaConVentas()).thenReturn(Optional.of(LocalDate.of(2025, 1, 20)));
+		when(repo.ultimoDiaConVentas()).thenReturn(Optional.of(LocalDate.of(2025, 3, 5)));
+		when(repo.calcularDesdeVentas(any(), any(), any())).thenReturn(List.of());
+
+		servicio.completarHistorial();
+
+		InOrder orden = inOrder(repo, contadores);
+		orden.verify(repo).calcularDesdeVentas(eq(LocalDate.of(2025, 1, 20)), eq(LocalDate.of(2025, 1, 31)), any());
+		orden.verify(repo).calcularDesdeVentas(eq(LocalDate.of(2025, 2, 1)), eq(LocalDate.of(2025, 2, 28)), any());
+		orden.verify(repo).calcularDesdeVentas(eq(LocalDate.of(2025, 3, 1)), eq(LocalDate.of(2025, 3, 5)), any());
+		orden.verify(contadores).subirA(any(), any(), eq(1L));
+	}
+
+	@Test
+	void elHistorialYaArmadoNoSeRecalcula() {
+		when(contadores.leer(any(), any())).thenReturn(1L);
+
+		servicio.completarHistorial();
+
+		verify(repo, never()).calcularDesdeVentas(any(), any(), any());
+		verify(contadores, never()).subirA(any(), any(), anyLong());
+	}
+}
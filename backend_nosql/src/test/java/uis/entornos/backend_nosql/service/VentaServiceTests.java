@@ -0,0 +1,182 @@
+package uis.entornos.backend_nosql.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import uis.entornos.backend_nosql.dto.ResultadoVentaDTO;
+import uis.entornos.backend_nosql.dto.VentaDTO;
+import uis.entornos.backend_nosql.model.Cliente;
+import uis.entornos.backend_nosql.model.Empleado;
+import uis.entornos.backend_nosql.model.Producto;
+import uis.entornos.backend_nosql.model.Sucursal;
+import uis.entornos.backend_nosql.model.Venta;
+import uis.entornos.backend_nosql.repository.ClienteRepository;
+import uis.entornos.backend_nosql.repository.EmpleadoRepository;
+import uis.entornos.backend_nosql.repository.ProductoRepository;
+import uis.entornos.backend_nosql.repository.SucursalRepository;
+import uis.entornos.backend_nosql.repository.VentaRepository;
+
+class VentaServiceTests {
+
+	private VentaRepository ventaRepo;
+	private ProductoRepository productoRepo;
+	private VentaService servicio;
+
+	@BeforeEach
+	void preparar() {
+		ventaRepo = mock(VentaRepository.class);
+		productoRepo = mock(ProductoRepository.class);
+		ClienteRepository clienteRepo = mock(ClienteRepository.class);
+		EmpleadoRepository empleadoRepo = mock(EmpleadoRepository.class);
+		SucursalRepository sucursalRepo = mock(SucursalRepository.class);
+		VentaDiariaService ventaDiaria = mock(VentaDiariaService.class);
+
+		Sucursal sucursal = new Sucursal();
+		sucursal.setId("suc");
+		Cliente cliente = new Cliente();
+		cliente.setId("cli");
+		Empleado empleado = new Empleado();
+		empleado.setId("emp");
+		when(clienteRepo.findAllById(any())).thenReturn(List.of(cliente));
+		when(empleadoRepo.listarPorIds(any())).thenReturn(List.of(empleado));
+		when(sucursalRepo.findAllById(any())).thenReturn(List.of(sucursal));
+		when(productoRepo.listarPorIds(any())).thenReturn(List.of(producto("p1", 10, sucursal), producto("p2", 10, sucursal)));
+		when(ventaDiaria.abrirRegistro(any())).thenReturn(() -> {
+		});
+
+		servicio = new VentaService(ventaRepo, null, productoRepo, clienteRepo, empleadoRepo, sucursalRepo,
+				mock(InventarioService.class), ventaDiaria, mock(VentasEnVivoService.class),
+				mock(CatalogoCacheService.class), mock(VersionesService.class), new SimpleMeterRegistry(), 30);
+	}
+
+	private static Producto producto(String id, int stock, Sucursal sucursal) {
+		Producto p = new Producto();
+		p.setId(id);
+		p.setNombre("Producto " + id);
+		p.setPrecio(new BigDecimal("100"));
+		p.setStock(stock);
+		p.setSucursal(sucursal);
+		return p;
+	}
+
+	// productoId, cantidad, productoId, cantidad...
+	private static VentaDTO venta(Object... lineas) {
+		VentaDTO dto = new VentaDTO();
+		dto.setClienteId("cli");
+		dto.setEmpleadoId("emp");
+		dto.setSucursalId("suc");
+		List<VentaDTO.Item> items = new ArrayList<>();
+		for (int i = 0; i < lineas.length; i += 2) {
+			VentaDTO.Item item = new VentaDTO.Item();
+			item.setProductoId((String) lineas[i]);
+			item.setCantidad((Integer) lineas[i + 1]);
+			items.add(item);
+		}
+		dto.setItems(items);
+		return dto;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Venta> insertadas() {
+		ArgumentCaptor<List<Venta>> ventas = ArgumentCaptor.forClass(List.class);
+		verify(ventaRepo).insert(ventas.capture());
+		return ventas.getValue();
+	}
+
+	@Test
+	void siOtraCajaVendioAntesSeRechazaLaUltimaVentaConEseProductoYSeReintenta() {
+		// Al leer alcanzaba para todo; al descontar, p1 ya no alcanza para el total y sí sin la última venta
+		when(productoRepo.descontarStock(Map.of("p1", 6, "p2", 1))).thenReturn(Optional.of("p1"));
+		when(productoRepo.descontarStock(Map.of("p1", 4, "p2", 1))).thenReturn(Optional.empty());
+
+		List<ResultadoVentaDTO> resultados = servicio.registrarLote(List.of(
+				venta("p1", 2), venta("p1", 2, "p2", 1), venta("p1", 2)));
+
+		assertThat(resultados).extracting(ResultadoVentaDTO::isRegistrada).containsExactly(true, true, false);
+		assertThat(resultados.get(2).getError()).isEqualTo("Stock insuficiente para producto: Producto p1");
+		assertThat(insertadas()).hasSize(2);
+	}
+
+	@Test
+	void siNingunaAlcanzaNoSeInserta() {
+		when(productoRepo.descontarStock(any())).thenReturn(Optional.of("p1"));
+
+		List<ResultadoVentaDTO> resultados = servicio.registrarLote(List.of(venta("p1", 1), venta("p1", 1)));
+
+		assertThat(resultados).extracting(ResultadoVentaDTO::isRegistrada).containsExactly(false, false);
+		verify(ventaRepo, never()).insert(anyList());
+	}
+
+	@Test
+	void lasRechazadasAlArmarNoLleganAlDescuento() {
+		when(productoRepo.descontarStock(any())).thenReturn(Optional.empty());
+
+		// La segunda pide más de lo que queda en el lote (10 - 8)
+		List<ResultadoVentaDTO> resultados = servicio.registrarLote(List.of(
+				venta("p1", 8), venta("p1", 3), venta("p9", 1), venta("p2", 1)));
+
+		assertThat(resultados).extracting(ResultadoVentaDTO::isRegistrada).containsExactly(true, false, false, true);
+		assertThat(resultados.get(2).getError()).isEqualTo("Producto no encontrado: p9");
+		verify(productoRepo).descontarStock(Map.of("p1", 8, "p2", 1));
+	}
+
+	@Test
+	void siFallaLaInsercionSeDevuelveElStockYSeRechazanTodas() {
+		when(productoRepo.descontarStock(any())).thenReturn(Optional.empty());
+		when(ventaRepo.insert(anyList())).thenThrow(new RuntimeException("Mongo caído"));
+
+		List<ResultadoVentaDTO> resultados = servicio.registrarLote(List.of(venta("p1", 1), venta("p2", 2)));
+
+		assertThat(resultados).extracting(ResultadoVentaDTO::isRegistrada).containsExactly(false, false);
+		assertThat(resultados.get(0).getError()).isEqualTo("No se pudo guardar la venta: Mongo caído");
+		verify(ventaRepo).deleteAllById(anyCollection());
+		verify(productoRepo).reponerStock(Map.of("p1", 1, "p2", 2));
+	}
+
+	@Test
+	void laFechaDeLaCajaSeRespetaDentroDeLaVentana() {
+		when(productoRepo.descontarStock(any())).thenReturn(Optional.empty());
+		LocalDateTime ayer = LocalDateTime.now().minusDays(1).withNano(0);
+		VentaDTO conFecha = venta("p1", 1);
+		conFecha.setFecha(ayer);
+		VentaDTO futura = venta("p1", 1);
+		futura.setFecha(LocalDateTime.now().plusHours(1));
+		VentaDTO vieja = venta("p1", 1);
+		vieja.setFecha(LocalDateTime.now().minusDays(31));
+
+		List<ResultadoVentaDTO> resultados = servicio.registrarLote(List.of(conFecha, futura, vieja));
+
+		assertThat(resultados).extracting(ResultadoVentaDTO::isRegistrada).containsExactly(true, false, false);
+		assertThat(resultados.get(1).getError()).isEqualTo("La fecha de la venta es posterior a la actual");
+		assertThat(resultados.get(2).getError()).isEqualTo("La fecha de la venta tiene más de 30 días");
+		assertThat(insertadas()).extracting(Venta::getFecha).containsExactly(ayer);
+	}
+
+	@Test
+	void laVentaEnLineaNoAceptaFecha() {
+		VentaDTO dto = venta("p1", 1);
+		dto.setFecha(LocalDateTime.now());
+
+		assertThatThrownBy(() -> servicio.registrarVenta(dto))
+				.hasMessage("La fecha solo se acepta en /api/ventas/batch");
+	}
+}
@@ -0,0 +1,104 @@
+package uis.entornos.backend_nosql.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uis.entornos.backend_nosql.repository.Contadores;
+
+class VersionesServiceTests {
+
+	// Lo que hay en la colección "contadores", compartida por todas las instancias
+	private final Map<String, Long> numeros = new HashMap<>();
+	private final Map<String, Long> modificados = new HashMap<>();
+	private Contadores contadores;
+
+	@BeforeEach
+	void preparar() {
+		contadores = mock(Contadores.class);
+		when(contadores.leerVarios(anyCollection())).thenAnswer(inv -> valores(inv.getArgument(0), numeros));
+		when(contadores.leerVarios(anyCollection(), eq("modificado")))
+				.thenAnswer(inv -> valores(inv.getArgument(0), modificados));
+		doAnswer(inv -> {
+			numeros.merge(inv.getArgument(0), 1L, Long::sum);
+			modificados.merge(inv.getArgument(0), inv.getArgument(2), Math::max);
+			return null;
+		}).when(contadores).incrementarYSubirA(anyString(), eq("modificado"), anyLong());
+	}
+
+	private static Map<String, Long> valores(Collection<String> claves, Map<String, Long> origen) {
+		Map<String, Long> valores = new HashMap<>();
+		claves.forEach(c -> valores.put(c, origen.getOrDefault(c, 0L)));
+		return valores;
+	}
+
+	@Test
+	void elEtagCombinaLasVersionesDeCadaColeccion() {
+		VersionesService versiones = new VersionesService(contadores, 60_000);
+		versiones.tocar(VersionesService.PRODUCTOS);
+		versiones.tocar(VersionesService.PRODUCTOS);
+		versiones.tocar(VersionesService.SUCURSALES);
+
+		VersionesService.Version v = versiones.de(VersionesService.PRODUCTOS, VersionesService.SUCURSALES);
+
+		assertThat(v.etag()).isEqualTo("W/\"2-1\"");
+		assertThat(v.modificado()).isEqualTo(modificados.get("version_productos"));
+		assertThat(versiones.de(VersionesService.EMPLEADOS)).isEqualTo(new VersionesService.Version("W/\"0\"", 0));
+	}
+
+	@Test
+	void dentroDelTtlNoSeVuelveALeerMongo() {
+		VersionesService versiones = new VersionesService(contadores, 60_000);
+
+		versiones.de(VersionesService.PRODUCTOS);
+		versiones.de(VersionesService.PRODUCTOS, VersionesService.SUCURSALES);
+
+		verify(contadores, times(1)).leerVarios(anyCollection());
+	}
+
+	@Test
+	void unCambioDeEstaInstanciaSeVeDeInmediato() {
+		VersionesService versiones = new VersionesService(contadores, 60_000);
+		String antes = versiones.de(VersionesService.PRODUCTOS).etag();
+
+		versiones.tocar(VersionesService.PRODUCTOS);
+
+		assertThat(versiones.de(VersionesService.PRODUCTOS).etag()).isNotEqualTo(antes);
+	}
+
+	@Test
+	void unCambioDeOtraInstanciaSeVeAlVencerElTtl() throws InterruptedException {
+		VersionesService esta = new VersionesService(contadores, 300);
+		VersionesService otra = new VersionesService(contadores, 300);
+		String antes = esta.de(VersionesService.EMPLEADOS).etag();
+
+		otra.tocar(VersionesService.EMPLEADOS);
+		assertThat(esta.de(VersionesService.EMPLEADOS).etag()).isEqualTo(antes);
+		Thread.sleep(350);
+
+		assertThat(esta.de(VersionesService.EMPLEADOS).etag()).isEqualTo("W/\"1\"");
+	}
+
+	@Test
+	void lasVersionesSobrevivenAUnReinicio() {
+		new VersionesService(contadores, 60_000).tocar(VersionesService.SUCURSALES);
+
+		VersionesService reiniciada = new VersionesService(contadores, 60_000);
+
+		assertThat(reiniciada.de(VersionesService.SUCURSALES).etag()).isEqualTo("W/\"1\"");
+	}
+}
@@ -0,0 +1,85 @@
+package uis.entornos.backend_nosql.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class IndicePrefijosTests {
+
+	private static final int SIN_LIMITE = 100;
+
+	private static IndicePrefijos<String> indice(String... idYNombre) {
+		IndicePrefijos<String> indice = new IndicePrefijos<>();
+		for (int i = 0; i < idYNombre.length; i += 2) {
+			indice.poner(idYNombre[i], idYNombre[i + 1], idYNombre[i + 1]);
+		}
+		return indice;
+	}
+
+	@Test
+	void buscaPorCualquierPalabraSinTildesNiMayusculas() {
+		IndicePrefijos<String> indice = indice("1", "Luis López", "2", "Lola Díaz", "3", "Pedro Ruiz");
+
+		assertThat(indice.buscar("LOP", SIN_LIMITE, v -> true)).containsExactly("Luis López");
+		assertThat(indice.buscar("diaz", SIN_LIMITE, v -> true)).containsExactly("Lola Díaz");
+		assertThat(indice.buscar("lo", SIN_LIMITE, v -> true)).containsExactly("Lola Díaz", "Luis López");
+		assertThat(indice.buscar("luis lo", SIN_LIMITE, v -> true)).containsExactly("Luis López");
+	}
+
+	@Test
+	void noRepiteUnIdCuandoVariasPalabrasCoinciden() {
+		IndicePrefijos<String> indice = indice("1", "Ana Anaya", "2", "Andrés");
+
+		assertThat(indice.buscar("an", SIN_LIMITE, v -> true)).containsExactly("Ana Anaya", "Andrés");
+	}
+
+	@Test
+	void respetaLimiteYFiltro() {
+		IndicePrefijos<String> indice = indice("1", "Café", "2", "Cacao", "3", "Canela");
+
+		assertThat(indice.buscar("ca", 2, v -> true)).containsExactly("Cacao", "Café");
+		assertThat(indice.buscar("ca", SIN_LIMITE, v -> !v.equals("Cacao"))).containsExactly("Café", "Canela");
+		assertThat(indice.buscar("ca", 0, v -> true)).isEmpty();
+	}
+
+	@Test
+	void prefijoVacioONuloNoDevuelveNada() {
+		IndicePrefijos<String> indice = indice("1", "Café");
+
+		assertThat(indice.buscar("", SIN_LIMITE, v -> true)).isEmpty();
+		assertThat(indice.buscar(" ¿? ", SIN_LIMITE, v -> true)).isEmpty();
+		assertThat(indice.buscar(null, SIN_LIMITE, v -> true)).isEmpty();
+	}
+
+	@Test
+	void ponerDeNuevoReemplazaLasClavesAnteriores() {
+		IndicePrefijos<String> indice = indice("1", "Arroz Blanco");
+
+		indice.poner("1", "Arroz Integral", "Arroz Integral");
+
+		assertThat(indice.buscar("blanco", SIN_LIMITE, v -> true)).isEmpty();
+		assertThat(indice.buscar("arroz", SIN_LIMITE, v -> true)).containsExactly("Arroz Integral");
+		assertThat(indice.tamanio()).isEqualTo(1);
+		assertThat(indice.valores()).containsExactly("Arroz Integral");
+	}
+
+	@Test
+	void ponerConNombreVacioQuitaElId() {
+		IndicePrefijos<String> indice = indice("1", "Arroz", "2", "Azúcar");
+
+		indice.poner("1", "  ", "  ");
+
+		assertThat(indice.buscar("a", SIN_LIMITE, v -> true)).containsExactly("Azúcar");
+		assertThat(indice.tamanio()).isEqualTo(1);
+	}
+
+	@Test
+	void quitarEliminaTodasLasPalabras() {
+		IndicePrefijos<String> indice = indice("1", "Luis López", "2", "Luisa Mora");
+
+		indice.quitar("1");
+
+		assertThat(indice.buscar("lopez", SIN_LIMITE, v -> true)).isEmpty();
+		assertThat(indice.buscar("luis", SIN_LIMITE, v -> true)).containsExactly("Luisa Mora");
+	}
+}
@@ -0,0 +1,53 @@
+package uis.entornos.backend_nosql.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class JwtClavesTests {
+
+	private static final String CLAVE_1 = Base64.getEncoder().encodeToString(new byte[32]);
+	private static final String CLAVE_2 = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+	@Test
+	void sinClaveActivaFirmaLaPrimera() {
+		JwtClaves claves = new JwtClaves("k1:" + CLAVE_1 + ", k2:" + CLAVE_2, "", "", "");
+
+		assertThat(claves.getKidActivo()).isEqualTo("k1");
+		assertThat(claves.getClaveActiva()).isEqualTo(claves.buscar("k1"));
+		assertThat(claves.buscar("k2")).isNotNull();
+		assertThat(claves.buscar("k3")).isNull();
+	}
+
+	@Test
+	void laClaveActivaSeElige() {
+		JwtClaves claves = new JwtClaves("k1:" + CLAVE_1 + ",k2:" + CLAVE_2, " k2 ", "", "");
+
+		assertThat(claves.getKidActivo()).isEqualTo("k2");
+		assertThat(claves.getClaveActiva().getEncoded()).isEqualTo(Base64.getDecoder().decode(CLAVE_2));
+	}
+
+	@Test
+	void laClaveActivaTieneQueEstarConfigurada() {
+		assertThatThrownBy(() -> new JwtClaves("k1:" + CLAVE_1, "k9", "", ""))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("k9");
+	}
+
+	@Test
+	void formatoInvalido() {
+		assertThatThrownBy(() -> new JwtClaves(CLAVE_1, "", "", ""))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void sinConfiguracionUsaUnaClaveLocal() {
+		JwtClaves claves = new JwtClaves("", "", "", "");
+
+		assertThat(claves.getKidActivo()).isEqualTo("local");
+		assertThat(claves.getClaveActiva()).isNotNull();
+	}
+}
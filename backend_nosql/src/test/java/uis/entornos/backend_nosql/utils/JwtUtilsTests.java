@@ -0,0 +1,106 @@
+package uis.entornos.backend_nosql.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Base64;
+import java.util.Date;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+class JwtUtilsTests {
+
+	private static final SecretKey CLAVE_A = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+	private static final SecretKey CLAVE_B = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+
+	private JwtClaves claves;
+	private JwtUtils jwt;
+
+	@BeforeEach
+	void preparar() {
+		// "b" firma; "a" es la clave anterior, que solo verifica
+		claves = spy(new JwtClaves("a:" + base64(CLAVE_A) + ",b:" + base64(CLAVE_B), "b", "", ""));
+		jwt = new JwtUtils(claves, 100);
+	}
+
+	private static String base64(SecretKey clave) {
+		return Base64.getEncoder().encodeToString(clave.getEncoded());
+	}
+
+	private static String token(String kid, SecretKey firma, long msHastaExp) {
+		var builder = Jwts.builder().setSubject("ana");
+		if (kid != null) {
+			builder.setHeaderParam(JwsHeader.KEY_ID, kid);
+		}
+		return builder.setExpiration(new Date(System.currentTimeMillis() + msHastaExp))
+				.signWith(firma)
+				.compact();
+	}
+
+	@Test
+	void firmaConLaClaveActivaYSuKid() {
+		String token = jwt.generateToken("ana");
+
+		assertThat(jwt.getUsernameFromToken(token)).isEqualTo("ana");
+		verify(claves).buscar("b");
+	}
+
+	@Test
+	void verificaConUnaClaveAnteriorSegunElKid() {
+		assertThat(jwt.parseToken(token("a", CLAVE_A, 60_000))).map(Claims::getSubject).contains("ana");
+	}
+
+	@Test
+	void rechazaKidDesconocidoAusenteOFirmaDeOtraClave() {
+		assertThat(jwt.validateToken(token("c", CLAVE_A, 60_000))).isFalse();
+		assertThat(jwt.validateToken(token(null, CLAVE_B, 60_000))).isFalse();
+		assertThat(jwt.validateToken(token("b", CLAVE_A, 60_000))).isFalse();
+	}
+
+	@Test
+	void unTokenVerificadoSeSirveDeLaCache() {
+		String token = token("a", CLAVE_A, 60_000);
+
+		assertThat(jwt.validateToken(token)).isTrue();
+		assertThat(jwt.validateToken(token)).isTrue();
+		assertThat(jwt.validateToken(token)).isTrue();
+
+		// La firma (y la búsqueda de la clave) solo la primera vez
+		verify(claves, times(1)).buscar("a");
+	}
+
+	@Test
+	void laCacheNoSirveUnTokenVencido() throws InterruptedException {
+		// "exp" va en segundos (se trunca): vence entre 1 y 2 s después
+		String token = token("a", CLAVE_A, 2_000);
+		assertThat(jwt.validateToken(token)).isTrue();
+
+		Thread.sleep(2_100);
+
+		assertThat(jwt.validateToken(token)).isFalse();
+	}
+
+	@Test
+	void conLaCacheLlenaSigueVerificando() {
+		jwt = new JwtUtils(claves, 1);
+		String uno = token("a", CLAVE_A, 60_000);
+		String otro = token("b", CLAVE_B, 60_000);
+
+		assertThat(jwt.validateToken(uno)).isTrue();
+		assertThat(jwt.validateToken(otro)).isTrue();
+		// "uno" salió de la caché al entrar "otro": se vuelve a verificar
+		assertThat(jwt.validateToken(uno)).isTrue();
+		verify(claves, times(2)).buscar("a");
+	}
+}
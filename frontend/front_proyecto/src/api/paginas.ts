@@ -0,0 +1,17 @@
+// Los listados de la API (clientes, productos, empleados, sucursales) vienen por páginas
+// de cursor: si quedan más, la respuesta trae X-Next-Cursor y la siguiente se pide con
+// ?after=<cursor>. Esto sigue el cursor hasta que el encabezado ya no viene.
+export async function fetchTodasLasPaginas<T>(url: string, mensajeError: string): Promise<T[]> {
+  const todos: T[] = [];
+  const separador = url.includes("?") ? "&" : "?";
+  let cursor: string | null = null;
+  do {
+    const pagina = cursor ? `${url}${separador}after=${encodeURIComponent(cursor)}` : url;
+    const res = await fetch(pagina);
+    if (!res.ok) throw new Error(`${mensajeError}: ${res.status}`);
+    const datos: T[] = await res.json();
+    todos.push(...datos);
+    cursor = res.headers.get("X-Next-Cursor");
+  } while (cursor);
+  return todos;
+}
@@ -1,6 +1,7 @@
 import React, { useEffect, useState } from "react";
 import { Card, Form, Button, Table, Alert, Badge, Row, Col, FloatingLabel } from "react-bootstrap";
 import { Plus, Trash2 } from "lucide-react";
+import { fetchTodasLasPaginas } from "../../api/paginas";
 
 interface Producto {
   id: string;
@@ -56,17 +57,11 @@ const SalesForm: React.FC = () => {
       setError(null);
 
       // Obtener clientes y productos de la sucursal del empleado
-      const [clientesRes, productosRes] = await Promise.all([
-        fetch(`${API_BASE_URL}/clientes`),
-        fetch(`${API_BASE_URL}/productos?sucursalId=${sucursalId}`),
+      const [clientesData, productosData] = await Promise.all([
+        fetchTodasLasPaginas<Cliente>(`${API_BASE_URL}/clientes`, "Error al cargar clientes"),
+        fetchTodasLasPaginas<Producto>(`${API_BASE_URL}/productos?sucursalId=${sucursalId}`, "Error al cargar productos"),
       ]);
 
-      if (!clientesRes.ok) throw new Error("Error al cargar clientes");
-      if (!productosRes.ok) throw new Error("Error al cargar productos");
-
-      const clientesData: Cliente[] = await clientesRes.json();
-      const productosData: Producto[] = await productosRes.json();
-
       setClientes(clientesData);
       setProductos(productosData);
     } catch (err: any) {
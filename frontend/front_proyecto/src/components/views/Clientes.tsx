@@ -1,6 +1,7 @@
 import React, { useEffect, useState } from "react";
 import { Card, Table, Alert, Button, Modal, Form } from "react-bootstrap";
 import { Plus, Edit, Trash2 } from "lucide-react";
+import { fetchTodasLasPaginas } from "../../api/paginas";
 
 interface Cliente {
   id: string;
@@ -37,10 +38,7 @@ const Clientes: React.FC = () => {
       setLoading(true);
       setError(null);
 
-      const res = await fetch(`${API_BASE_URL}/clientes`);
-      if (!res.ok) throw new Error(`Error clientes: ${res.status}`);
-
-      const data: Cliente[] = await res.json();
+      const data = await fetchTodasLasPaginas<Cliente>(`${API_BASE_URL}/clientes`, "Error clientes");
       setClientes(data);
     } catch (err) {
       setError(err instanceof Error ? err.message : "Error desconocido");
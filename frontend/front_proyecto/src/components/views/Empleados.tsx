@@ -1,6 +1,7 @@
 import React, { useEffect, useState } from "react";
 import { Card, Table, Alert, Button, Modal, Form } from "react-bootstrap";
 import { Plus, Edit, Trash2 } from "lucide-react";
+import { fetchTodasLasPaginas } from "../../api/paginas";
 
 interface Empleado {
   id: string;
@@ -53,17 +54,11 @@ const Empleados: React.FC = () => {
     try {
       setLoading(true);
       setError(null);
-      const [empRes, sucRes] = await Promise.all([
-        fetch(`${API_BASE_URL}/empleados`),
-        fetch(`${API_BASE_URL}/sucursales`),
+      const [empData, sucData] = await Promise.all([
+        fetchTodasLasPaginas<Empleado>(`${API_BASE_URL}/empleados`, "Error empleados"),
+        fetchTodasLasPaginas<Sucursal>(`${API_BASE_URL}/sucursales`, "Error sucursales"),
       ]);
 
-      if (!empRes.ok) throw new Error(`Error empleados: ${empRes.status}`);
-      if (!sucRes.ok) throw new Error(`Error sucursales: ${sucRes.status}`);
-
-      const empData: Empleado[] = await empRes.json();
-      const sucData: Sucursal[] = await sucRes.json();
-
       setEmpleados(empData);
       setSucursales(sucData);
     } catch (err) {
@@ -1,6 +1,7 @@
 import React, { useEffect, useState } from "react";
 import { Card, Table, Alert, Button, Modal, Form } from "react-bootstrap";
 import { Plus, Edit, Trash2 } from "lucide-react";
+import { fetchTodasLasPaginas } from "../../api/paginas";
 
 interface Producto {
   id: string;
@@ -49,17 +50,11 @@ const Productos: React.FC = () => {
         ? `${API_BASE_URL}/productos?sucursalId=${sucursalId}`
         : `${API_BASE_URL}/productos`;
       
-      const [prodRes, sucRes] = await Promise.all([
-        fetch(prodUrl),
-        fetch(`${API_BASE_URL}/sucursales`),
+      const [prodData, sucData] = await Promise.all([
+        fetchTodasLasPaginas<Producto>(prodUrl, "Error productos"),
+        fetchTodasLasPaginas<Sucursal>(`${API_BASE_URL}/sucursales`, "Error sucursales"),
       ]);
 
-      if (!prodRes.ok) throw new Error(`Error productos: ${prodRes.status}`);
-      if (!sucRes.ok) throw new Error(`Error sucursales: ${sucRes.status}`);
-
-      const prodData: Producto[] = await prodRes.json();
-      const sucData: Sucursal[] = await sucRes.json();
-
       setProductos(prodData);
       setSucursales(sucData);
     } catch (err) {
@@ -1,6 +1,7 @@
 import React, { useEffect, useState } from "react";
 import { Card, Button, Modal, Form, Table, Alert } from "react-bootstrap";
 import { Plus, Edit, Trash2, MapPin } from "lucide-react";
+import { fetchTodasLasPaginas } from "../../api/paginas";
 
 interface Sucursal {
   id: string;
@@ -41,9 +42,7 @@ const Sucursales: React.FC = () => {
     try {
       setLoading(true);
       setError(null);
-      const response = await fetch(`${API_BASE_URL}/sucursales`);
-      if (!response.ok) throw new Error("Error al obtener sucursales");
-      const data: Sucursal[] = await response.json();
+      const data = await fetchTodasLasPaginas<Sucursal>(`${API_BASE_URL}/sucursales`, "Error al obtener sucursales");
       setSucursales(data);
     } catch (err) {
       setError(err instanceof Error ? err.message : "Error desconocido");
@@ -4,6 +4,7 @@ import { Bar, Pie } from "react-chartjs-2";
 import DatePicker from "react-datepicker";
 import "react-datepicker/dist/react-datepicker.css";
 import { Chart as ChartJS, BarElement, CategoryScale, LinearScale, ArcElement, Tooltip, Legend } from 'chart.js';
+import { fetchTodasLasPaginas } from "../../api/paginas";
 
 ChartJS.register(BarElement, CategoryScale, LinearScale, ArcElement, Tooltip, Legend);
 
@@ -63,9 +64,7 @@ const Administracion: React.FC = () => {
         setProductosVendidos(totalProductos);
 
         // Obtener sucursales
-        const sucursalesResponse = await fetch(`${API_BASE_URL}/sucursales`);
-        if (!sucursalesResponse.ok) throw new Error("Error al obtener sucursales");
-        const sucursalesData: Sucursal[] = await sucursalesResponse.json();
+        const sucursalesData = await fetchTodasLasPaginas<Sucursal>(`${API_BASE_URL}/sucursales`, "Error al obtener sucursales");
         setSucursales(sucursalesData);
         setSucursalesActivas(sucursalesData.length);
 